@@ -1,44 +1,132 @@
 import React, { Component } from 'react';
-import { Button, ButtonGroup, Container, Table } from 'reactstrap';
+import { Alert, Button, ButtonGroup, Container, Table } from 'reactstrap';
 import AppNavbar from './AppNavbar';
 import { Link } from 'react-router-dom';
 
+// Items are fetched a page at a time from the keyset paginated API.
+const PAGE_SIZE = 100;
+// Every row has the same fixed height so the visible slice can be worked out from the scroll offset alone.
+const ROW_HEIGHT = 48;
+const VIEWPORT_HEIGHT = 600;
+// Rows rendered above and below the viewport so fast scrolling does not show blank space.
+const OVERSCAN = 10;
+// Start fetching the next page when the viewport gets within this many rows of the end of the loaded items.
+const PREFETCH_ROWS = 50;
+
 class ItemList extends Component {
 
     constructor(props) {
         super(props);
-        this.state = {items: []};
+        this.state = {items: [], nextCursor: null, hasMore: true, isLoading: false, scrollTop: 0, error: null, loadError: null};
         this.remove = this.remove.bind(this);
+        this.retryLoad = this.retryLoad.bind(this);
+        this.handleScroll = this.handleScroll.bind(this);
     }
 
     componentDidMount() {
-        fetch('/v1/items')
-            .then(response => response.json())
-            .then(data => this.setState({items: data.itemResponses}));
+        this.mounted = true;
+        this.loadNextPage();
+    }
+
+    componentWillUnmount() {
+        this.mounted = false;
+    }
+
+    async loadNextPage() {
+        const {nextCursor, hasMore, isLoading} = this.state;
+        if (isLoading || !hasMore) {
+            return;
+        }
+        this.setState({isLoading: true});
+        try {
+            const response = await fetch(`/v1/items?limit=${PAGE_SIZE}` + (nextCursor ? `&after=${nextCursor}` : ''));
+            if (!response.ok) {
+                throw new Error(`Failed to load items: ${response.status}`);
+            }
+            const data = await response.json();
+            if (!this.mounted) {
+                return;
+            }
+            this.setState(state => ({
+                items: state.items.concat(data.itemResponses),
+                nextCursor: data.nextCursor || null,
+                hasMore: !!data.nextCursor,
+                isLoading: false,
+                loadError: null
+            }), () => this.loadIfNearEnd());
+        } catch (e) {
+            // The cursor is left where it was, so a retry fetches the same page again.
+            if (this.mounted) {
+                this.setState({isLoading: false, loadError: e.message});
+            }
+        }
+    }
+
+    retryLoad() {
+        this.setState({loadError: null}, () => this.loadNextPage());
     }
 
+    loadIfNearEnd() {
+        const {items, scrollTop, loadError} = this.state;
+        // Scrolling does not retry a failed page, otherwise a server that is down would be polled on every scroll event.
+        if (loadError) {
+            return;
+        }
+        const lastVisibleRow = Math.ceil((scrollTop + VIEWPORT_HEIGHT) / ROW_HEIGHT);
+        if (lastVisibleRow + PREFETCH_ROWS >= items.length) {
+            this.loadNextPage();
+        }
+    }
+
+    handleScroll(event) {
+        this.setState({scrollTop: event.currentTarget.scrollTop}, () => this.loadIfNearEnd());
+    }
+
+    /**
+     * The row is removed straight away rather than waiting on the server. If the delete fails it is put back
+     * where it was; a 404 means it is already gone, so that counts as success.
+     */
     async remove(id) {
-        await fetch(`/v1/items/${id}`, {
-            method: 'DELETE',
-            headers: {
-                'Accept': 'application/json',
-                'Content-Type': 'application/json'
+        const index = this.state.items.findIndex(i => i.id === id);
+        if (index < 0) {
+            return;
+        }
+        const removed = this.state.items[index];
+        this.setState(state => ({items: state.items.filter(i => i.id !== id), error: null}));
+        try {
+            const response = await fetch(`/v1/items/${id}`, {
+                method: 'DELETE',
+                headers: {
+                    'Accept': 'application/json',
+                    'Content-Type': 'application/json'
+                }
+            });
+            if (!response.ok && response.status !== 404) {
+                throw new Error(`Failed to delete ${removed.name}: ${response.status}`);
             }
-        }).then(() => {
-            let updatedItems = [...this.state.items].filter(i => i.id !== id);
-            this.setState({items: updatedItems});
-        });
+        } catch (e) {
+            if (this.mounted) {
+                this.setState(state => {
+                    const items = [...state.items];
+                    items.splice(Math.min(index, items.length), 0, removed);
+                    return {items, error: e.message};
+                });
+            }
+        }
     }
 
     render() {
-        const {items, isLoading} = this.state;
+        const {items, isLoading, hasMore, scrollTop, error, loadError} = this.state;
 
-        if (isLoading) {
-            return <p>Loading...</p>;
-        }
+        // Only the rows in view, plus the overscan, are rendered. Spacer rows stand in for the rest so the
+        // scrollbar still reflects every loaded item.
+        const firstRow = Math.max(0, Math.floor(scrollTop / ROW_HEIGHT) - OVERSCAN);
+        const lastRow = Math.min(items.length, Math.ceil((scrollTop + VIEWPORT_HEIGHT) / ROW_HEIGHT) + OVERSCAN);
+        const topPadding = firstRow * ROW_HEIGHT;
+        const bottomPadding = (items.length - lastRow) * ROW_HEIGHT;
 
-        const itemList = items.map(item => {
-            return <tr key={item.id}>
+        const itemList = items.slice(firstRow, lastRow).map(item => {
+            return <tr key={item.id} style={{height: ROW_HEIGHT}}>
                 <td style={{whiteSpace: 'nowrap'}}>{item.name}</td>
                 <td>{item.colour}</td>
                 <td>
@@ -58,18 +146,29 @@ class ItemList extends Component {
                         <h3 className="mb-0">Items</h3>
                         <Button color="success" tag={Link} to="/items/new">Add Item</Button>
                     </div>
-                    <Table className="mt-4">
-                        <thead>
-                        <tr>
-                            <th width="30%">Name</th>
-                            <th width="30%">Colour</th>
-                            <th width="40%">Actions</th>
-                        </tr>
-                        </thead>
-                        <tbody>
-                        {itemList}
-                        </tbody>
-                    </Table>
+                    {error && <Alert color="danger">{error}</Alert>}
+                    <div className="mt-4 item-list-viewport" style={{height: VIEWPORT_HEIGHT}} onScroll={this.handleScroll}>
+                        <Table className="mb-0">
+                            <thead>
+                            <tr>
+                                <th width="30%">Name</th>
+                                <th width="30%">Colour</th>
+                                <th width="40%">Actions</th>
+                            </tr>
+                            </thead>
+                            <tbody>
+                            {topPadding > 0 && <tr style={{height: topPadding}} aria-hidden="true"><td colSpan="3" style={{padding: 0, border: 0}}/></tr>}
+                            {itemList}
+                            {bottomPadding > 0 && <tr style={{height: bottomPadding}} aria-hidden="true"><td colSpan="3" style={{padding: 0, border: 0}}/></tr>}
+                            </tbody>
+                        </Table>
+                        {isLoading && <p className="text-center my-2">Loading...</p>}
+                        {loadError && <Alert color="danger" className="d-flex justify-content-between align-items-center my-2">
+                            {loadError}
+                            <Button size="sm" color="primary" onClick={this.retryLoad}>Retry</Button>
+                        </Alert>}
+                        {!isLoading && !hasMore && items.length === 0 && !error && <p className="text-center my-2">No items</p>}
+                    </div>
                 </Container>
             </div>
         );
@@ -0,0 +1,161 @@
+-- Converts demo.item into a hash partitioned table online, without blocking the application for the copy.
+--
+-- Not a Flyway migration: for a large table the copy takes hours, and Flyway would run it in one transaction
+-- holding a lock on demo.item while the first node boots. Run it by hand instead, with the application up:
+--
+--   psql -h <host> -U <user> -d postgres -v partition_count=16 -v batch_size=50000 -f scripts/partition-item.sql
+--
+-- 1. Changes to demo.item are captured by a temporary trigger from here on.
+-- 2. A partitioned copy, with the same columns and indexes, is created empty.
+-- 3. Rows are copied in id order, batch_size per transaction, so locks stay short and autovacuum keeps up.
+-- 4. Captured changes are applied to the copy in batches, until only a few are left.
+-- 5. In one short transaction holding an exclusive lock, the last changes are applied and the tables swapped.
+--
+-- Flyway does not track this script, and demo.item keeps its name, so later migrations apply to the partitioned
+-- table, though CREATE INDEX CONCURRENTLY is not supported on it. Once partitioned, GET /v1/items/export?partition=<n> streams a single
+-- partition, so a client can read all of them in parallel.
+--
+-- Storage peaks at twice the size of the table until demo.item_unpartitioned is dropped once the result has
+-- been checked. The partition count cannot be changed afterwards without running this again. If the script
+-- stops before step 5, drop demo.item_partitioned, the capture trigger and its table, and start again.
+
+\set ON_ERROR_STOP on
+SELECT set_config('demo.partition_count', :'partition_count', false);
+SELECT set_config('demo.batch_size', :'batch_size', false);
+
+-- 1. Capture changes.
+CREATE TABLE demo.item_partition_changes (
+    id uuid NOT NULL
+);
+
+CREATE FUNCTION demo.capture_item_partition_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO demo.item_partition_changes (id) VALUES (OLD.id);
+    ELSE
+        INSERT INTO demo.item_partition_changes (id) VALUES (NEW.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER item_partition_capture_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON demo.item
+    FOR EACH ROW EXECUTE FUNCTION demo.capture_item_partition_change();
+
+-- 2. Empty partitioned copy. Indexes are created now, while it is empty, rather than under the final lock.
+CREATE TABLE demo.item_partitioned (
+    LIKE demo.item INCLUDING DEFAULTS,
+    CONSTRAINT item_partitioned_pkey PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+DO $$
+DECLARE
+    partition_count int := current_setting('demo.partition_count')::int;
+BEGIN
+    FOR i IN 0..partition_count - 1 LOOP
+        EXECUTE format('CREATE TABLE demo.item_p%s PARTITION OF demo.item_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+            i, partition_count, i);
+    END LOOP;
+END $$;
+
+CREATE INDEX item_partitioned_live_id_idx ON demo.item_partitioned (id) WHERE deleted_at IS NULL;
+CREATE INDEX item_partitioned_deleted_at_idx ON demo.item_partitioned (deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- 3. Batched copy, committing after every batch.
+CREATE PROCEDURE demo.copy_item_batches(batch_size int) AS $$
+DECLARE
+    last_id uuid;
+    batch_end uuid;
+BEGIN
+    LOOP
+        SELECT id INTO batch_end FROM (
+            SELECT id FROM demo.item WHERE last_id IS NULL OR id > last_id ORDER BY id LIMIT batch_size
+        ) batch ORDER BY id DESC LIMIT 1;
+        EXIT WHEN batch_end IS NULL;
+        INSERT INTO demo.item_partitioned
+        SELECT * FROM demo.item WHERE (last_id IS NULL OR id > last_id) AND id <= batch_end
+        ON CONFLICT (id) DO NOTHING;
+        last_id := batch_end;
+        COMMIT;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CALL demo.copy_item_batches(current_setting('demo.batch_size')::int);
+
+-- 4. Apply captured changes in batches, committing after every batch, until fewer than one batch is left.
+CREATE PROCEDURE demo.apply_item_partition_changes(batch_size int) AS $$
+DECLARE
+    ids uuid[];
+BEGIN
+    LOOP
+        WITH changed AS (
+            DELETE FROM demo.item_partition_changes
+            WHERE ctid = ANY (ARRAY(SELECT ctid FROM demo.item_partition_changes LIMIT batch_size))
+            RETURNING id
+        )
+        SELECT array_agg(DISTINCT id) INTO ids FROM changed;
+        EXIT WHEN ids IS NULL;
+        INSERT INTO demo.item_partitioned
+        SELECT * FROM demo.item WHERE id = ANY (ids)
+        ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, colour = EXCLUDED.colour, deleted_at = EXCLUDED.deleted_at;
+        DELETE FROM demo.item_partitioned p
+        WHERE p.id = ANY (ids) AND NOT EXISTS (SELECT 1 FROM demo.item i WHERE i.id = p.id);
+        COMMIT;
+        EXIT WHEN cardinality(ids) < batch_size;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CALL demo.apply_item_partition_changes(current_setting('demo.batch_size')::int);
+
+-- 5. Swap. Readers and writers wait on the lock for the length of this transaction only, so it only touches the
+-- ids captured since step 4. Every delete since step 1 was captured, so the copy needs no full comparison.
+BEGIN;
+LOCK TABLE demo.item IN ACCESS EXCLUSIVE MODE;
+
+CREATE TEMPORARY TABLE item_partition_final_changes ON COMMIT DROP AS
+SELECT DISTINCT id FROM demo.item_partition_changes;
+-- Temporary tables are never auto analyzed. Without statistics the planner assumes a large table here and scans
+-- all of demo.item to compare against it.
+ANALYZE item_partition_final_changes;
+
+INSERT INTO demo.item_partitioned
+SELECT i.* FROM demo.item i JOIN item_partition_final_changes c ON c.id = i.id
+ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, colour = EXCLUDED.colour, deleted_at = EXCLUDED.deleted_at;
+DELETE FROM demo.item_partitioned p
+USING item_partition_final_changes c
+WHERE p.id = c.id AND NOT EXISTS (SELECT 1 FROM demo.item i WHERE i.id = c.id);
+
+DROP TRIGGER item_partition_capture_trigger ON demo.item;
+ALTER TABLE demo.item RENAME TO item_unpartitioned;
+ALTER TABLE demo.item_unpartitioned RENAME CONSTRAINT item_pkey TO item_unpartitioned_pkey;
+ALTER INDEX demo.item_live_id_idx RENAME TO item_unpartitioned_live_id_idx;
+ALTER INDEX demo.item_deleted_at_idx RENAME TO item_unpartitioned_deleted_at_idx;
+ALTER TABLE demo.item_partitioned RENAME TO item;
+ALTER TABLE demo.item RENAME CONSTRAINT item_partitioned_pkey TO item_pkey;
+ALTER INDEX demo.item_partitioned_live_id_idx RENAME TO item_live_id_idx;
+ALTER INDEX demo.item_partitioned_deleted_at_idx RENAME TO item_deleted_at_idx;
+
+-- Carry over the snapshot's change log trigger, if it is installed.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = 'demo.item_unpartitioned'::regclass AND tgname = 'item_change_log_trigger') THEN
+        DROP TRIGGER item_change_log_trigger ON demo.item_unpartitioned;
+        CREATE TRIGGER item_change_log_trigger
+            AFTER INSERT OR UPDATE OR DELETE ON demo.item
+            FOR EACH ROW EXECUTE FUNCTION demo.log_item_change();
+    END IF;
+END $$;
+COMMIT;
+
+DROP PROCEDURE demo.copy_item_batches(int);
+DROP PROCEDURE demo.apply_item_partition_changes(int);
+DROP FUNCTION demo.capture_item_partition_change();
+DROP TABLE demo.item_partition_changes;
+
+ANALYZE demo.item;
+
+-- Once the application has been checked against the partitioned table:
+--   DROP TABLE demo.item_unpartitioned;
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+#
+# Measures time to a healthy context and the latency of the first GET /v1/items for each startup mode.
+#
+# Build the variants first:
+#   mvn clean package -Pcds          (jvm and cds)
+#   mvn -Pnative native:compile      (native, optional)
+#
+# Requires a PostgreSQL instance, configured through POSTGRES_HOSTNAME, POSTGRES_USER and POSTGRES_PASSWORD.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [modes...]
+#   e.g. scripts/startup-benchmark.sh 5 jvm cds native
+
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+MODES=${*:-jvm cds native}
+PORT=${PORT:-8080}
+TARGET=$(cd "$(dirname "$0")/../target" && pwd)
+JAR=springboot-react-1.0.0.jar
+
+command_for() {
+    case "$1" in
+        jvm) echo "java -jar $TARGET/$JAR" ;;
+        cds) echo "java -XX:SharedArchiveFile=$TARGET/cds/application.jsa -Dspring.aot.enabled=true -jar $TARGET/cds/$JAR" ;;
+        native) echo "$TARGET/springboot-react" ;;
+    esac
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+for mode in $MODES; do
+    command=$(command_for "$mode")
+    total_startup=0
+    total_first_request=0
+    for run in $(seq 1 "$RUNS"); do
+        start=$(now_ms)
+        $command --server.port="$PORT" > /dev/null 2>&1 &
+        pid=$!
+        until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+            sleep 0.01
+        done
+        startup=$(( $(now_ms) - start ))
+        first_request=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/v1/items")
+        first_request_ms=$(awk "BEGIN { printf \"%d\", $first_request * 1000 }")
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+        echo "$mode run $run: startup ${startup}ms - first request ${first_request_ms}ms"
+        total_startup=$(( total_startup + startup ))
+        total_first_request=$(( total_first_request + first_request_ms ))
+    done
+    echo "$mode average: startup $(( total_startup / RUNS ))ms - first request $(( total_first_request / RUNS ))ms"
+done
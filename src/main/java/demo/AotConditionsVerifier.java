@@ -0,0 +1,81 @@
+package demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import demo.cache.CacheInvalidationConfiguration;
+import demo.concurrency.ConcurrencyLimitConfiguration;
+import demo.datasource.ReadWriteDataSourceConfiguration;
+import demo.instrumentation.QueryInstrumentationConfiguration;
+import demo.purge.PurgeConfiguration;
+import demo.snapshot.ItemSnapshotConfiguration;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.PropertyResolver;
+
+/**
+ * Fails startup when a feature flag disagrees with the build.
+ *
+ * Each flag below is a condition on its configuration class. With AOT, as in the AppCDS and native images, the
+ * conditions are evaluated when the build runs process-aot rather than at startup, so setting the flag at runtime
+ * would otherwise be silently ignored. The build sees the defaults in application.yml unless the flags are set in its
+ * environment, e.g. ITEM_SNAPSHOT_ENABLED=true mvn clean package -Pcds.
+ *
+ * Registered in META-INF/spring.factories, so it runs after the AOT generated bean definitions are registered and
+ * before any bean is created. Without AOT the conditions are evaluated at startup and there is nothing to check.
+ */
+public class AotConditionsVerifier implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    static final List<Flag> FLAGS = List.of(
+            new Flag("demo.datasource.replica.enabled", "POSTGRES_REPLICA_ENABLED", false, ReadWriteDataSourceConfiguration.class),
+            new Flag("demo.snapshot.enabled", "ITEM_SNAPSHOT_ENABLED", false, ItemSnapshotConfiguration.class),
+            new Flag("demo.cache.invalidation.enabled", "ITEM_CACHE_INVALIDATION_ENABLED", false, CacheInvalidationConfiguration.class),
+            new Flag("demo.purge.enabled", "ITEM_PURGE_ENABLED", true, PurgeConfiguration.class),
+            new Flag("demo.jdbc.instrumentation.enabled", "JDBC_INSTRUMENTATION_ENABLED", true, QueryInstrumentationConfiguration.class),
+            new Flag("demo.concurrency.enabled", null, true, ConcurrencyLimitConfiguration.class));
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        if(AotDetector.useGeneratedArtifacts()) {
+            verify(context.getBeanFactory(), context.getEnvironment());
+        }
+    }
+
+    static void verify(ListableBeanFactory beanFactory, PropertyResolver environment) {
+        List<String> mismatches = new ArrayList<>();
+        for(Flag flag : FLAGS) {
+            boolean enabled = flag.isEnabled(environment);
+            boolean built = beanFactory.getBeanNamesForType(flag.getConfiguration(), true, false).length > 0;
+            if(enabled != built) {
+                mismatches.add(flag.getName() + (flag.getEnvironmentVariable() == null ? "" : " (" + flag.getEnvironmentVariable() + ")")
+                        + " is " + enabled + " but was " + built + " when the application was AOT processed");
+            }
+        }
+        if(!mismatches.isEmpty()) {
+            throw new IllegalStateException("Feature flags differ from the AOT build, which fixed the beans they control: "
+                    + String.join(", ", mismatches) + ". Rebuild with the flags set in the build's environment as they"
+                    + " are at runtime.");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Flag {
+        private final String name;
+        private final String environmentVariable;
+        private final boolean matchIfMissing;
+        private final Class<?> configuration;
+
+        /**
+         * Matches the flag the way @ConditionalOnProperty(havingValue = "true") does.
+         */
+        boolean isEnabled(PropertyResolver environment) {
+            String value = environment.getProperty(name);
+            return value == null ? matchIfMissing : value.equalsIgnoreCase("true");
+        }
+    }
+}
@@ -1,13 +1,33 @@
 package demo;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Slf4j
 @EnableJpaRepositories("demo.repository")
 @ComponentScan(basePackages = {"demo"})
+@EnableScheduling
 @Configuration
 public class DemoConfiguration {
+
+    /**
+     * With AOT the bean definitions are fixed at build time, so spring.flyway.enabled no longer removes Flyway. It is
+     * checked here as well, which lets the AppCDS training run start without a database while using AOT.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.flyway.enabled:true}") boolean enabled) {
+        return flyway -> {
+            if(enabled) {
+                flyway.migrate();
+            } else {
+                log.info("Skipping Flyway migrations as spring.flyway.enabled is false");
+            }
+        };
+    }
 }
@@ -0,0 +1,48 @@
+package demo;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary representations of the REST API, negotiated through the Accept and Content-Type headers.
+ *
+ * JSON remains the default. Callers may request application/cbor or application/x-jackson-smile instead. The
+ * converters are built from the Boot configured builder so they share the JSON mapper's modules and settings.
+ *
+ * Blackbird replaces reflective property access with generated lambdas for JSON and Smile. A native image
+ * cannot define classes at runtime, so it keeps the reflective access there.
+ */
+@Configuration
+public class SerializationConfiguration {
+
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule() : new BlackbirdModule();
+    }
+
+    /**
+     * Without Blackbird, as its deserializers match field names with CBORParser.nextFieldName(SerializableString),
+     * which skips a field when the name straddles the parser's input buffer. Request bodies over about 8KB would
+     * then fail to read. Seen with Jackson 2.17.1 up to 2.20.0.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory())
+                .modulesToInstall(modules -> modules.removeIf(BlackbirdModule.class::isInstance))
+                .build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
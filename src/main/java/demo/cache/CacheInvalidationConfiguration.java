@@ -0,0 +1,47 @@
+package demo.cache;
+
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+/**
+ * Keeps the per-node second level caches consistent across replicas using PostgreSQL LISTEN/NOTIFY, with no
+ * external broker.
+ */
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+@ConditionalOnProperty(name = "demo.cache.invalidation.enabled", havingValue = "true")
+@Configuration
+public class CacheInvalidationConfiguration {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Bean
+    public ItemInvalidationPublisher itemInvalidationPublisher(DataSource dataSource, CacheInvalidationProperties properties,
+                                                               EntityManagerFactory entityManagerFactory) {
+        ItemInvalidationPublisher publisher = new ItemInvalidationPublisher(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory),
+                dataSource, properties, nodeId);
+        ItemChangeEventListener listener = new ItemChangeEventListener(publisher);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        return publisher;
+    }
+
+    @Bean
+    public ItemInvalidationListener itemInvalidationListener(DataSourceProperties dataSourceProperties, CacheInvalidationProperties properties,
+                                                             ItemCacheEvictor itemCacheEvictor) {
+        return new ItemInvalidationListener(dataSourceProperties, properties, itemCacheEvictor, nodeId);
+    }
+}
@@ -0,0 +1,28 @@
+package demo.cache;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "demo.cache.invalidation")
+public class CacheInvalidationProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * PostgreSQL notification channel shared by all nodes.
+     */
+    private String channel = "item_invalidation";
+
+    /**
+     * Keeps each payload well inside PostgreSQL's 8000 byte notification limit.
+     */
+    private int maxIdsPerMessage = 200;
+
+    /**
+     * Delay before the listener reconnects after losing its connection.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
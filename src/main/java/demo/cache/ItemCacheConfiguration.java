@@ -0,0 +1,17 @@
+package demo.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local second level cache maintenance, needed whether or not invalidation across nodes is enabled.
+ */
+@Configuration
+public class ItemCacheConfiguration {
+
+    @Bean
+    public ItemCacheEvictor itemCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        return new ItemCacheEvictor(entityManagerFactory);
+    }
+}
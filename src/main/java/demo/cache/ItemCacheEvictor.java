@@ -0,0 +1,44 @@
+package demo.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import demo.domain.Item;
+import demo.domain.ItemSoftDeletedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts items from this node's Hibernate second level cache.
+ */
+public class ItemCacheEvictor {
+
+    private final Cache cache;
+
+    public ItemCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evict(Collection<UUID> itemIds) {
+        itemIds.forEach(itemId -> cache.evictEntityData(Item.class, itemId));
+        // Cached lists hold full rows, so any change can make them stale.
+        cache.evictDefaultQueryRegion();
+    }
+
+    /**
+     * Soft deletes bypass Hibernate, so the item is evicted here once the delete has committed. Evicting it any
+     * earlier would let a concurrent read cache the live row again.
+     */
+    @TransactionalEventListener
+    public void onItemSoftDeleted(ItemSoftDeletedEvent event) {
+        evict(List.of(event.getItemId()));
+    }
+
+    public void evictAll() {
+        cache.evictEntityData(Item.class);
+        cache.evictDefaultQueryRegion();
+    }
+}
@@ -0,0 +1,127 @@
+package demo.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * LISTENs for invalidation messages from the other nodes on a dedicated connection, outside the pool, and evicts
+ * the named items from this node's cache.
+ *
+ * Notifications sent while the connection is down are lost, so everything is evicted on reconnect.
+ */
+@Slf4j
+public class ItemInvalidationListener implements SmartLifecycle {
+
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationProperties properties;
+    private final ItemCacheEvictor evictor;
+    private final String nodeId;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ItemInvalidationListener(DataSourceProperties dataSourceProperties, CacheInvalidationProperties properties,
+                                    ItemCacheEvictor evictor, String nodeId) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+        this.evictor = evictor;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "item-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if(thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while(running) {
+            try(Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try(Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                log.info("Listening for item invalidations on channel: {}", properties.getChannel());
+                if(reconnecting) {
+                    evictor.evictAll();
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while(running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if(notifications != null) {
+                        for(PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch(SQLException e) {
+                if(!running) {
+                    return;
+                }
+                log.error("Item invalidation listener connection failed: " + e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                } catch(InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void handle(String payload) {
+        int separator = payload.indexOf('|');
+        if(separator < 0) {
+            log.warn("Ignoring malformed invalidation message: {}", payload);
+            return;
+        }
+        if(payload.substring(0, separator).equals(nodeId)) {
+            // This node's cache was already updated by Hibernate.
+            return;
+        }
+        String body = payload.substring(separator + 1);
+        if(body.equals(ItemInvalidationPublisher.ALL)) {
+            evictor.evictAll();
+            return;
+        }
+        List<UUID> itemIds = new ArrayList<>();
+        for(String itemId : body.split(",")) {
+            try {
+                itemIds.add(UUID.fromString(itemId));
+            } catch(IllegalArgumentException e) {
+                log.warn("Ignoring malformed item id in invalidation message: {}", itemId);
+            }
+        }
+        evictor.evict(itemIds);
+        log.debug("Evicted {} items invalidated by node: {}", itemIds.size(), payload.substring(0, separator));
+    }
+}
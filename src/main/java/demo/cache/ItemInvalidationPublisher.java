@@ -0,0 +1,124 @@
+package demo.cache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+
+import demo.domain.ItemSoftDeletedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+/**
+ * Publishes the ids of item changes to the other nodes with PostgreSQL NOTIFY.
+ *
+ * The notifications are sent in the writing transaction, after Hibernate's flush and just before the commit, so
+ * PostgreSQL delivers them when the change becomes visible and drops them if it rolls back. Nothing is held in
+ * memory past the commit, so a crash cannot lose them. The ids a transaction changes are coalesced into as few
+ * notifications as the payload limit allows. The payload is the publishing node's id, a '|' and either a comma
+ * separated list of item ids or '*' when every item must be evicted.
+ */
+@Slf4j
+public class ItemInvalidationPublisher {
+
+    static final String ALL = "*";
+    static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private final EntityManager entityManager;
+    private final DataSource dataSource;
+    private final CacheInvalidationProperties properties;
+    private final String nodeId;
+    private final Map<SessionImplementor, Set<UUID>> pendingIds = new ConcurrentHashMap<>();
+
+    public ItemInvalidationPublisher(EntityManager entityManager, DataSource dataSource, CacheInvalidationProperties properties, String nodeId) {
+        this.entityManager = entityManager;
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Records a change to the item, to be published when the session's transaction commits.
+     */
+    public void publish(SessionImplementor session, UUID itemId) {
+        pendingIds.computeIfAbsent(session, this::register).add(itemId);
+    }
+
+    /**
+     * Soft deletes bypass Hibernate, so its event listeners never see them. Handled in the deleting transaction.
+     */
+    @EventListener
+    public void onItemSoftDeleted(ItemSoftDeletedEvent event) {
+        publish(entityManager.unwrap(SessionImplementor.class), event.getItemId());
+    }
+
+    /**
+     * Asks every other node to evict everything, on the current transaction's connection if there is one and
+     * straight away otherwise.
+     */
+    public void publishAll() throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            notify(connection, List.of(nodeId + "|" + ALL));
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Hibernate runs the before completion process after flushing the session, so it sees changes that are only
+     * detected by the flush at commit, which a Spring beforeCommit callback would run ahead of.
+     */
+    private Set<UUID> register(SessionImplementor session) {
+        Set<UUID> itemIds = new LinkedHashSet<>();
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completing ->
+                completing.doWork(connection -> notify(connection, encode(itemIds))));
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) ->
+                pendingIds.remove(session));
+        return itemIds;
+    }
+
+    private void notify(Connection connection, List<String> payloads) throws SQLException {
+        try(PreparedStatement statement = connection.prepareStatement(NOTIFY_SQL)) {
+            for(String payload : payloads) {
+                statement.setString(1, properties.getChannel());
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        }
+        log.debug("Published {} invalidation messages", payloads.size());
+    }
+
+    private List<String> encode(Set<UUID> itemIds) {
+        List<String> payloads = new ArrayList<>();
+        List<UUID> batch = new ArrayList<>(properties.getMaxIdsPerMessage());
+        for(UUID itemId : itemIds) {
+            batch.add(itemId);
+            if(batch.size() == properties.getMaxIdsPerMessage()) {
+                payloads.add(encode(batch));
+                batch.clear();
+            }
+        }
+        if(!batch.isEmpty()) {
+            payloads.add(encode(batch));
+        }
+        return payloads;
+    }
+
+    private String encode(List<UUID> itemIds) {
+        return nodeId + "|" + itemIds.stream().map(UUID::toString).collect(Collectors.joining(","));
+    }
+}
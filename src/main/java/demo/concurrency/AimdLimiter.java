@@ -0,0 +1,78 @@
+package demo.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Additive increase, multiplicative decrease concurrency limit.
+ *
+ * The limit grows by roughly one for each limit's worth of requests that complete within the latency tolerance
+ * while the limit is being used, and is cut by the backoff ratio whenever a request is slow or fails. A request
+ * is only admitted while the number in flight is below the current limit.
+ */
+public class AimdLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyToleranceNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    public AimdLimiter(String name, ConcurrencyLimitProperties.Limit properties) {
+        this.name = name;
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.latencyToleranceNanos = properties.getLatencyTolerance().toNanos();
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Admits the request if there is capacity, in which case onComplete must be called once it finishes.
+     */
+    public boolean tryAcquire() {
+        while(true) {
+            int current = inFlight.get();
+            if(current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if(inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onComplete(long latency, TimeUnit unit, boolean failed) {
+        int released = inFlight.getAndDecrement();
+        synchronized(this) {
+            if(failed || unit.toNanos(latency) > latencyToleranceNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if(released * 2 >= (int) limit) {
+                // Only grow while at least half the limit is in use, otherwise there is no evidence it is too low.
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
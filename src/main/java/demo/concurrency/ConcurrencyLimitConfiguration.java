@@ -0,0 +1,56 @@
+package demo.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(name = "demo.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+@Configuration
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public AimdLimiter readLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        return bindMetrics(new AimdLimiter("read", properties.getRead()), meterRegistry);
+    }
+
+    @Bean
+    public AimdLimiter writeLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        return bindMetrics(new AimdLimiter("write", properties.getWrite()), meterRegistry);
+    }
+
+    @Bean
+    public AimdLimiter bulkLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        return bindMetrics(new AimdLimiter("bulk", properties.getBulk()), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AimdLimiter readLimiter, AimdLimiter writeLimiter,
+                                                                                AimdLimiter bulkLimiter, ConcurrencyLimitProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(readLimiter, writeLimiter, bulkLimiter, properties));
+        registration.addUrlPatterns("/v1/items", "/v1/items/*");
+        return registration;
+    }
+
+    private static AimdLimiter bindMetrics(AimdLimiter limiter, MeterRegistry meterRegistry) {
+        Gauge.builder("items.concurrency.limit", limiter, AimdLimiter::getLimit)
+                .tag("operation", limiter.getName())
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("items.concurrency.in.flight", limiter, AimdLimiter::getInFlight)
+                .tag("operation", limiter.getName())
+                .description("Requests currently being processed")
+                .register(meterRegistry);
+        FunctionCounter.builder("items.concurrency.rejected", limiter, AimdLimiter::getRejected)
+                .tag("operation", limiter.getName())
+                .description("Requests shed because the limit was reached")
+                .register(meterRegistry);
+        return limiter;
+    }
+}
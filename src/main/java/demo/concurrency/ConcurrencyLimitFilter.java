@@ -0,0 +1,113 @@
+package demo.concurrency;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load on the item endpoints once the adaptive limit for reads or writes is reached, so that a slow
+ * database produces fast rejections rather than a growing queue of requests in Tomcat and Hikari.
+ *
+ * The bulk import and export have a limit of their own, so a few long running transfers neither starve the
+ * regular requests of slots nor shrink their limits.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final Set<String> BULK_PATHS = Set.of("/v1/items/import", "/v1/items/export");
+
+    private final AimdLimiter readLimiter;
+    private final AimdLimiter writeLimiter;
+    private final AimdLimiter bulkLimiter;
+    private final ConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitFilter(AimdLimiter readLimiter, AimdLimiter writeLimiter, AimdLimiter bulkLimiter,
+                                  ConcurrencyLimitProperties properties) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.bulkLimiter = bulkLimiter;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        AimdLimiter limiter;
+        ConcurrencyLimitProperties.Limit limitProperties;
+        if(BULK_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))) {
+            limiter = bulkLimiter;
+            limitProperties = properties.getBulk();
+        } else if("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+            limiter = readLimiter;
+            limitProperties = properties.getRead();
+        } else {
+            limiter = writeLimiter;
+            limitProperties = properties.getWrite();
+        }
+        if(!limiter.tryAcquire()) {
+            log.warn("Rejecting {} {} - {} limit of {} reached", request.getMethod(), request.getRequestURI(), limiter.getName(), limiter.getLimit());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setStatus(limitProperties.getRejectionStatus());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if(completed && request.isAsyncStarted()) {
+                // Streaming responses hold their slot until the async processing completes.
+                request.getAsyncContext().addListener(new CompletionListener(limiter));
+            } else {
+                limiter.onComplete(System.nanoTime() - start, TimeUnit.NANOSECONDS, !completed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    /**
+     * Async dispatches are covered by the slot taken on the initial request.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private static class CompletionListener implements AsyncListener {
+
+        private final AimdLimiter limiter;
+
+        CompletionListener(AimdLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            // Long running streams say nothing about database latency, so only failures adjust the limit.
+            limiter.onComplete(0, TimeUnit.NANOSECONDS, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package demo.concurrency;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "demo.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Limit for GET requests.
+     */
+    private Limit read = new Limit();
+
+    /**
+     * Limit for POST, PUT and DELETE requests.
+     */
+    private Limit write = new Limit();
+
+    /**
+     * Limit for the bulk import and export, which run for minutes and would otherwise hold read or write slots and
+     * shrink those limits through their latency.
+     */
+    private Limit bulk = new Limit();
+
+    @Data
+    public static class Limit {
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+
+        /**
+         * Requests slower than this count as a sign of overload and shrink the limit.
+         */
+        private Duration latencyTolerance = Duration.ofMillis(500);
+
+        /**
+         * Status returned to rejected requests.
+         */
+        private int rejectionStatus = 503;
+    }
+}
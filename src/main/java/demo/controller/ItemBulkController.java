@@ -0,0 +1,101 @@
+package demo.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import demo.rest.api.ExportFormat;
+import demo.rest.api.ImportItemsResponse;
+import demo.service.ItemExportService;
+import demo.service.ItemImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/v1/items")
+public class ItemBulkController {
+
+    static final String PARTITIONS_HEADER = "X-Item-Partitions";
+
+    @Autowired
+    private final ItemImportService itemImportService;
+
+    @Autowired
+    private final ItemExportService itemExportService;
+
+    /**
+     * Streams a CSV upload of name,colour rows into the item table.
+     */
+    @PostMapping(path = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ImportItemsResponse> importItems(InputStream csv) {
+        log.info("Received request to import items");
+        try {
+            ImportItemsResponse response = itemImportService.importItems(csv);
+            return ResponseEntity.ok(response);
+        } catch(Exception e) {
+            log.error(e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Streams the item table ordered by id, optionally restricted to ids after the given id and up to and
+     * including the given id.
+     *
+     * With a partition, only that hash partition of the table is streamed, and the partition count is returned in
+     * the X-Item-Partitions header so a client can go on to read the others in parallel.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format,
+                                                             @RequestParam(required = false) Integer partition,
+                                                             @RequestParam(required = false) UUID after,
+                                                             @RequestParam(required = false) UUID upTo) {
+        log.info("Received request to export items as {} - partition: {} - after: {} - up to: {}", format, partition, after, upTo);
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        if(exportFormat == null) {
+            log.error("Unsupported export format: " + format);
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if(partition != null) {
+            // Checked before streaming starts, as the status cannot change once the body is being written.
+            int partitionCount;
+            try {
+                partitionCount = itemExportService.getPartitionCount();
+            } catch(SQLException e) {
+                log.error(e.getMessage());
+                return ResponseEntity.internalServerError().build();
+            }
+            if(partition < 0 || partition >= partitionCount) {
+                log.error("No item partition " + partition + " of " + partitionCount);
+                return ResponseEntity.badRequest().header(PARTITIONS_HEADER, String.valueOf(partitionCount)).build();
+            }
+            response.header(PARTITIONS_HEADER, String.valueOf(partitionCount));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                itemExportService.exportItems(exportFormat, partition, after, upTo, out);
+            } catch(SQLException e) {
+                log.error(e.getMessage());
+                throw new IOException(e);
+            }
+        };
+        return response
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=items." + exportFormat.getFileExtension())
+                .body(body);
+    }
+}
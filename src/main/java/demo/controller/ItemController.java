@@ -22,6 +22,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
@@ -30,6 +31,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/v1/items")
 public class ItemController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     @Autowired
     private final ItemService itemService;
 
@@ -76,10 +79,21 @@ public class ItemController {
         }
     }
 
+    /**
+     * Without a limit or cursor every item is returned, as before. With either, a page of at most limit items is
+     * returned along with the cursor for the next page.
+     */
     @GetMapping()
-    public ResponseEntity<GetItemsResponse> getItems() {
-        log.info("Retrieving items");
-        GetItemsResponse response = itemService.getItems();
+    public ResponseEntity<GetItemsResponse> getItems(@RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) UUID after) {
+        GetItemsResponse response;
+        if(limit==null && after==null) {
+            log.info("Retrieving items");
+            response = itemService.getItems();
+        } else {
+            log.info("Retrieving page of items - limit: {} - after: {}", limit, after);
+            response = itemService.getItems(limit!=null ? limit : DEFAULT_PAGE_SIZE, after);
+        }
         return ResponseEntity.ok(response);
     }
 
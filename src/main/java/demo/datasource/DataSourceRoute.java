@@ -0,0 +1,6 @@
+package demo.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
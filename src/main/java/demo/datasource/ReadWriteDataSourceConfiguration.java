@@ -0,0 +1,87 @@
+package demo.datasource;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Replaces the auto-configured data source with one that sends read only transactions to a replica pool, and keeps
+ * those transactions from populating the second level cache.
+ */
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "demo.datasource.replica.enabled", havingValue = "true")
+@Configuration
+public class ReadWriteDataSourceConfiguration {
+
+    /**
+     * Bound to spring.datasource.hikari, as the auto-configured pool it replaces would have been.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Pool settings for the replica are under demo.datasource.replica.hikari, as it may be sized apart from the primary.
+     */
+    @Bean
+    @ConfigurationProperties("demo.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaProperties replicaProperties) {
+        DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword());
+        if(replicaProperties.getDriverClassName()!=null) {
+            builder.driverClassName(replicaProperties.getDriverClassName());
+        }
+        HikariDataSource dataSource = builder.build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealth replicaHealth(@Qualifier("replicaDataSource") DataSource replicaDataSource, ReplicaProperties replicaProperties) {
+        return new ReplicaHealth(replicaDataSource, replicaProperties);
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaHealth replicaHealth) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaHealth));
+    }
+
+    /**
+     * Set on the entity manager factory before it initializes, so the transaction manager picks the dialect up from it.
+     */
+    @Bean
+    public static BeanPostProcessor replicaCacheModeJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if(bean instanceof AbstractEntityManagerFactoryBean entityManagerFactoryBean) {
+                    entityManagerFactoryBean.setJpaDialect(new ReplicaCacheStoreModeJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package demo.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes read only transactions to the replica and everything else to the primary.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy so that the connection is only fetched once the
+ * transaction's read only flag has been bound.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final ReplicaHealth replicaHealth;
+
+    public ReadWriteRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, ReplicaHealth replicaHealth) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.replicaHealth = replicaHealth;
+        setTargetDataSources(Map.<Object, Object>of(DataSourceRoute.PRIMARY, primaryDataSource, DataSourceRoute.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaHealth.isAvailable()) {
+            return DataSourceRoute.REPLICA;
+        }
+        return DataSourceRoute.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(target -> target.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSupplier supplier) throws SQLException {
+        if(determineCurrentLookupKey() != DataSourceRoute.REPLICA) {
+            return supplier.getConnection(primaryDataSource);
+        }
+        try {
+            return supplier.getConnection(replicaDataSource);
+        } catch(SQLException e) {
+            log.error("Failed to obtain replica connection, falling back to the primary: " + e.getMessage());
+            replicaHealth.markUnavailable();
+            return supplier.getConnection(primaryDataSource);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,64 @@
+package demo.datasource;
+
+import java.sql.SQLException;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Stops read only transactions from putting entities or query results into the second level cache. Their rows may
+ * come from a lagging replica after the write's eviction has run, and would then stay cached until the next change
+ * to the item. The cache is only populated by transactions on the primary.
+ *
+ * Lookups by id still read the cache, through the JPA store mode. Queries skip the query cache altogether, as
+ * Hibernate puts a missed result even when the session's cache mode is GET.
+ *
+ * The route is chosen when the first statement runs and follows the replica's health, so every read only
+ * transaction is treated as served by the replica.
+ */
+public class ReplicaCacheStoreModeJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if(!definition.isReadOnly()) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Object previousStoreMode = entityManager.getProperties().get(SpecHints.HINT_SPEC_CACHE_STORE_MODE);
+        CacheMode previousCacheMode = session.getCacheMode();
+        // Setting the store mode also sets the session's cache mode, so the query cache mode must follow it.
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        session.setCacheMode(CacheMode.IGNORE);
+        return new ReadOnlyTransactionData(transactionData, session,
+                previousStoreMode!=null ? previousStoreMode : CacheStoreMode.USE, previousCacheMode);
+    }
+
+    /**
+     * Restores the cache modes, as the entity manager outlives the transaction when it is held open for the request.
+     */
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if(transactionData instanceof ReadOnlyTransactionData readOnlyTransactionData) {
+            readOnlyTransactionData.session.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, readOnlyTransactionData.previousStoreMode);
+            readOnlyTransactionData.session.setCacheMode(readOnlyTransactionData.previousCacheMode);
+            transactionData = readOnlyTransactionData.transactionData;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    @AllArgsConstructor
+    private static class ReadOnlyTransactionData {
+
+        private final Object transactionData;
+        private final Session session;
+        private final Object previousStoreMode;
+        private final CacheMode previousCacheMode;
+    }
+}
@@ -0,0 +1,58 @@
+package demo.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Tracks whether the replica is reachable and within the configured replication lag.
+ */
+@Slf4j
+public class ReplicaHealth {
+
+    private final DataSource replicaDataSource;
+    private final ReplicaProperties properties;
+    private volatile boolean available = true;
+
+    public ReplicaHealth(DataSource replicaDataSource, ReplicaProperties properties) {
+        this.replicaDataSource = replicaDataSource;
+        this.properties = properties;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void markUnavailable() {
+        if(available) {
+            log.warn("Replica marked unavailable, routing reads to the primary.");
+        }
+        available = false;
+    }
+
+    @Scheduled(fixedDelayString = "${demo.datasource.replica.health-check-interval-ms:5000}")
+    public void check() {
+        try(Connection connection = replicaDataSource.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            if(lagSeconds * 1000 > properties.getMaxLag().toMillis()) {
+                log.warn("Replica lag of {}s exceeds tolerance of {}.", lagSeconds, properties.getMaxLag());
+                markUnavailable();
+            } else {
+                if(!available) {
+                    log.info("Replica available again, lag: {}s.", lagSeconds);
+                }
+                available = true;
+            }
+        } catch(SQLException e) {
+            log.error("Replica health check failed: " + e.getMessage());
+            markUnavailable();
+        }
+    }
+}
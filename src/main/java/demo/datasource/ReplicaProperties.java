@@ -0,0 +1,32 @@
+package demo.datasource;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "demo.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * When disabled all traffic goes to the spring.datasource primary.
+     */
+    private boolean enabled = false;
+
+    private String driverClassName;
+    private String url;
+    private String username;
+    private String password;
+
+    /**
+     * Replication lag above which read only transactions fall back to the primary.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Query returning the replica lag in seconds. The default suits a PostgreSQL streaming replica.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_is_in_recovery() "
+            + "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) ELSE 0 END";
+}
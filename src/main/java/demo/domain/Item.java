@@ -1,7 +1,10 @@
 package demo.domain;
 
+import java.time.Instant;
 import java.util.UUID;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -9,9 +12,20 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.SQLUpdate;
+import org.hibernate.jdbc.Expectation;
 
 @Entity(name="Item")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
+@SQLRestriction("deleted_at IS NULL")
+// Only updates a live item, so an update racing a soft delete touches no row and fails rather than reviving it.
+// Parameters follow Hibernate's column order: colour, name, then the id.
+@SQLUpdate(sql = "UPDATE demo.item SET colour = ?, name = ? WHERE id = ? AND deleted_at IS NULL", verify = Expectation.RowCount.class)
 @Builder
 @Data
 @NoArgsConstructor
@@ -26,4 +40,11 @@ public class Item {
     private String name;
 
     private String colour;
+
+    /**
+     * Set when the item is deleted. The row is hidden from every query from then on, and removed by the purger.
+     * Written only by ItemRepository.softDeleteById, never by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private Instant deletedAt;
 }
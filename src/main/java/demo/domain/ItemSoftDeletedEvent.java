@@ -0,0 +1,14 @@
+package demo.domain;
+
+import java.util.UUID;
+
+import lombok.Value;
+
+/**
+ * Published when an item is marked deleted with a bulk update, which bypasses Hibernate's entity events.
+ */
+@Value
+public class ItemSoftDeletedEvent {
+
+    UUID itemId;
+}
@@ -0,0 +1,98 @@
+package demo.instrumentation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Wraps the application data source in a JDBC proxy that counts statements per request and logs slow statements
+ * with their bind parameters. Rows are counted from Hibernate's entity loads rather than by proxying result sets.
+ */
+@ConditionalOnProperty(name = "demo.jdbc.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+@ImportRuntimeHints(QueryInstrumentationRuntimeHints.class)
+@Configuration
+public class QueryInstrumentationConfiguration {
+
+    @Bean
+    public QueryStatisticsListener queryStatisticsListener() {
+        return new QueryStatisticsListener();
+    }
+
+    @Bean
+    public QueryStatisticsRegistry queryStatisticsRegistry() {
+        return new QueryStatisticsRegistry();
+    }
+
+    @Bean
+    public QueryStatisticsEndpoint queryStatisticsEndpoint(QueryStatisticsRegistry queryStatisticsRegistry) {
+        return new QueryStatisticsEndpoint(queryStatisticsRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatisticsFilter> queryStatisticsFilter(QueryStatisticsListener queryStatisticsListener,
+                                                                              QueryStatisticsRegistry queryStatisticsRegistry) {
+        FilterRegistrationBean<QueryStatisticsFilter> registration = new FilterRegistrationBean<>(new QueryStatisticsFilter(queryStatisticsListener, queryStatisticsRegistry));
+        registration.addUrlPatterns("/v1/items", "/v1/items/*");
+        return registration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatisticsHibernatePropertiesCustomizer(QueryStatisticsListener queryStatisticsListener) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+                sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+                        .appendListeners(EventType.POST_LOAD, queryStatisticsListener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    /**
+     * Only the data source the application uses is wrapped, not the pools behind replica routing, so each
+     * statement is counted once.
+     */
+    @Bean
+    public static BeanPostProcessor queryInstrumentingDataSourcePostProcessor(ObjectProvider<QueryStatisticsListener> queryStatisticsListener,
+                                                                              @Value("${demo.jdbc.slow-query-threshold-ms:200}") long slowQueryThresholdMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                QueryStatisticsListener listener = queryStatisticsListener.getObject();
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(listener)
+                        .logSlowQueryBySlf4j(slowQueryThresholdMs, TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN)
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package demo.instrumentation;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * The JDBC proxy wraps connections and statements in JDK dynamic proxies, which a native image can only create
+ * for the interface combinations registered at build time.
+ */
+public class QueryInstrumentationRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.proxies()
+                .registerJdkProxy(ProxyJdbcObject.class, Connection.class)
+                .registerJdkProxy(ProxyJdbcObject.class, Statement.class)
+                .registerJdkProxy(ProxyJdbcObject.class, PreparedStatement.class)
+                .registerJdkProxy(ProxyJdbcObject.class, CallableStatement.class);
+    }
+}
@@ -0,0 +1,33 @@
+package demo.instrumentation;
+
+/**
+ * JDBC activity accumulated for a single request.
+ */
+public class QueryStatistics {
+
+    private long statements;
+    private long rows;
+    private long timeMs;
+
+    void recordStatement(long elapsedMs, long updatedRows) {
+        statements++;
+        timeMs += elapsedMs;
+        rows += updatedRows;
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+}
@@ -0,0 +1,30 @@
+package demo.instrumentation;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Exposes statement counts, rows and JDBC time per item endpoint at /actuator/querystats.
+ */
+@Endpoint(id = "querystats")
+public class QueryStatisticsEndpoint {
+
+    private final QueryStatisticsRegistry registry;
+
+    public QueryStatisticsEndpoint(QueryStatisticsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, QueryStatisticsRegistry.Summary> queryStatistics() {
+        return registry.summarize();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+}
@@ -0,0 +1,41 @@
+package demo.instrumentation;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the JDBC activity of each item request.
+ */
+@Slf4j
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    private final QueryStatisticsListener listener;
+    private final QueryStatisticsRegistry registry;
+
+    public QueryStatisticsFilter(QueryStatisticsListener listener, QueryStatisticsRegistry registry) {
+        this.listener = listener;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        listener.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStatistics statistics = listener.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+            registry.record(endpoint, statistics);
+            log.debug("{} - statements: {} - rows: {} - jdbc time: {}ms", endpoint, statistics.getStatements(),
+                    statistics.getRows(), statistics.getTimeMs());
+        }
+    }
+}
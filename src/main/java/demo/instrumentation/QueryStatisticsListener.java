@@ -0,0 +1,69 @@
+package demo.instrumentation;
+
+import java.util.List;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Counts statements, rows and JDBC time for the request on the current thread. Statements on threads without a
+ * request, such as scheduled jobs, are not counted.
+ *
+ * Rows are entities loaded by Hibernate plus update counts. Counting rows read through ResultSet.next() would mean
+ * proxying every ResultSet call, getters included, so rows read with plain JDBC, such as by the export, are not
+ * counted.
+ */
+public class QueryStatisticsListener implements QueryExecutionListener, PostLoadEventListener {
+
+    private final ThreadLocal<QueryStatistics> current = new ThreadLocal<>();
+
+    public void begin() {
+        current.set(new QueryStatistics());
+    }
+
+    public QueryStatistics end() {
+        QueryStatistics statistics = current.get();
+        current.remove();
+        return statistics;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStatistics statistics = current.get();
+        if(statistics != null) {
+            statistics.recordStatement(execInfo.getElapsedTime(), updatedRows(execInfo.getResult()));
+        }
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        QueryStatistics statistics = current.get();
+        if(statistics != null) {
+            statistics.recordRow();
+        }
+    }
+
+    private static long updatedRows(Object result) {
+        if(result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if(result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        if(result instanceof int[] counts) {
+            long rows = 0;
+            for(int count : counts) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,66 @@
+package demo.instrumentation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Aggregated JDBC activity per endpoint, keyed by HTTP method and request mapping pattern.
+ */
+public class QueryStatisticsRegistry {
+
+    private final Map<String, EndpointStatistics> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, QueryStatistics statistics) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStatistics()).record(statistics);
+    }
+
+    public Map<String, Summary> summarize() {
+        Map<String, Summary> summaries = new TreeMap<>();
+        endpoints.forEach((endpoint, statistics) -> summaries.put(endpoint, statistics.summarize()));
+        return summaries;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Summary {
+        private long requests;
+        private long statements;
+        private long maxStatementsPerRequest;
+        private double meanStatementsPerRequest;
+        private long rows;
+        private long timeMs;
+    }
+
+    private static class EndpointStatistics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder timeMs = new LongAdder();
+
+        void record(QueryStatistics statistics) {
+            requests.increment();
+            statements.add(statistics.getStatements());
+            maxStatements.accumulate(statistics.getStatements());
+            rows.add(statistics.getRows());
+            timeMs.add(statistics.getTimeMs());
+        }
+
+        Summary summarize() {
+            long requestCount = requests.sum();
+            long statementCount = statements.sum();
+            return new Summary(requestCount, statementCount, maxStatements.get(),
+                    requestCount == 0 ? 0 : (double) statementCount / requestCount, rows.sum(), timeMs.sum());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package demo.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Class histogram of the heap at /actuator/heaphistogram, largest classes by bytes first.
+ *
+ * Uses the GC.class_histogram diagnostic command with -all, which walks the heap at a safepoint without forcing
+ * a full collection.
+ */
+@Endpoint(id = "heaphistogram")
+public class HeapHistogramEndpoint {
+
+    private static final int DEFAULT_TOP = 50;
+    private static final Pattern ROW = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(.+)$");
+    private static final Pattern TOTAL = Pattern.compile("^Total\\s+(\\d+)\\s+(\\d+)\\s*$");
+
+    @ReadOperation
+    public HeapHistogram histogram(@Nullable Integer top) throws JMException {
+        String output = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                "gcClassHistogram",
+                new Object[] {new String[] {"-all"}},
+                new String[] {String[].class.getName()});
+        return parse(output, top != null ? top : DEFAULT_TOP);
+    }
+
+    static HeapHistogram parse(String output, int top) {
+        List<Entry> entries = new ArrayList<>();
+        long totalInstances = 0;
+        long totalBytes = 0;
+        for(String line : output.split("\n")) {
+            Matcher row = ROW.matcher(line);
+            if(row.matches()) {
+                if(entries.size() < top) {
+                    entries.add(new Entry(row.group(3).trim(), Long.parseLong(row.group(1)), Long.parseLong(row.group(2))));
+                }
+                continue;
+            }
+            Matcher total = TOTAL.matcher(line);
+            if(total.matches()) {
+                totalInstances = Long.parseLong(total.group(1));
+                totalBytes = Long.parseLong(total.group(2));
+            }
+        }
+        return new HeapHistogram(totalInstances, totalBytes, entries);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class HeapHistogram {
+        private long totalInstances;
+        private long totalBytes;
+        private List<Entry> classes;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Entry {
+        private String className;
+        private long instances;
+        private long bytes;
+    }
+}
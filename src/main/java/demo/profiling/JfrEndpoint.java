@@ -0,0 +1,155 @@
+package demo.profiling;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+/**
+ * Java Flight Recorder control at /actuator/jfr.
+ *
+ * POST starts an on-demand recording, DELETE stops it and returns the recording, and GET /actuator/jfr/{name}
+ * dumps the 'ondemand' or 'continuous' recording while it keeps running. The continuous recording uses the low
+ * overhead default settings and only keeps the configured window, so it can run permanently.
+ */
+@Slf4j
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    static final String ON_DEMAND = "ondemand";
+    static final String CONTINUOUS = "continuous";
+
+    private final ProfilingProperties properties;
+    private Recording onDemandRecording;
+    private Recording continuousRecording;
+
+    public JfrEndpoint(ProfilingProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void startContinuous() throws IOException, ParseException {
+        if(properties.getContinuous().isEnabled()) {
+            continuousRecording = new Recording(Configuration.getConfiguration("default"));
+            continuousRecording.setName(CONTINUOUS);
+            continuousRecording.setToDisk(true);
+            continuousRecording.setMaxAge(properties.getContinuous().getMaxAge());
+            continuousRecording.setMaxSize(properties.getContinuous().getMaxSize().toBytes());
+            continuousRecording.start();
+            log.info("Started continuous JFR recording keeping the last {}", properties.getContinuous().getMaxAge());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if(continuousRecording != null) {
+            continuousRecording.close();
+        }
+        if(onDemandRecording != null) {
+            onDemandRecording.close();
+        }
+    }
+
+    @ReadOperation
+    public synchronized Map<String, String> status() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put(ON_DEMAND, state(onDemandRecording));
+        status.put(CONTINUOUS, state(continuousRecording));
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, String>> start(@Nullable String settings) throws IOException {
+        if(onDemandRecording != null && onDemandRecording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(Map.of("error", "A recording is already running."), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        String settingsName = settings != null ? settings : properties.getOnDemand().getSettings();
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch(ParseException | IOException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown JFR settings: " + settingsName), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if(onDemandRecording != null) {
+            onDemandRecording.close();
+        }
+        onDemandRecording = new Recording(configuration);
+        onDemandRecording.setName(ON_DEMAND);
+        onDemandRecording.setToDisk(true);
+        onDemandRecording.setDuration(properties.getOnDemand().getMaxDuration());
+        onDemandRecording.start();
+        log.info("Started on-demand JFR recording with settings: {}", settingsName);
+        return new WebEndpointResponse<>(status());
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if(onDemandRecording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if(onDemandRecording.getState() == RecordingState.RUNNING) {
+            onDemandRecording.stop();
+            log.info("Stopped on-demand JFR recording");
+        }
+        Resource recording = dump(onDemandRecording);
+        onDemandRecording.close();
+        onDemandRecording = null;
+        return new WebEndpointResponse<>(recording);
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<Resource> recording(@Selector String name) throws IOException {
+        Recording recording = ON_DEMAND.equals(name) ? onDemandRecording : CONTINUOUS.equals(name) ? continuousRecording : null;
+        if(recording == null || recording.getState() != RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(dump(recording));
+    }
+
+    private static Resource dump(Recording recording) throws IOException {
+        Path file = Files.createTempFile(recording.getName() + "-", ".jfr");
+        // Only for a dump that is never streamed, such as when the client goes away first.
+        file.toFile().deleteOnExit();
+        recording.dump(file);
+        return new TemporaryFileResource(file);
+    }
+
+    private static String state(Recording recording) {
+        return recording == null ? "NONE" : recording.getState().name();
+    }
+
+    /**
+     * A dumped recording, deleted as soon as the stream it is written out from is closed.
+     */
+    static class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+}
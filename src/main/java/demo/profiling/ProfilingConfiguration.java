@@ -0,0 +1,61 @@
+package demo.profiling;
+
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
+
+/**
+ * Profiling endpoints. Every actuator endpoint but health is restricted to the OPS role over HTTP basic, as the
+ * others expose internals or, like querystats, change state. The filter chain only matches the actuator endpoints,
+ * so the API's requests skip Spring Security altogether, along with the Cache-Control: no-store header it adds.
+ */
+@EnableConfigurationProperties(ProfilingProperties.class)
+@Configuration
+public class ProfilingConfiguration {
+
+    static final String OPS_ROLE = "OPS";
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(ProfilingProperties properties) {
+        return new JfrEndpoint(properties);
+    }
+
+    @Bean
+    public HeapHistogramEndpoint heapHistogramEndpoint() {
+        return new HeapHistogramEndpoint();
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole(OPS_ROLE))
+                .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
+
+    @Bean
+    public InMemoryUserDetailsManager userDetailsService(ProfilingProperties properties) {
+        if(!StringUtils.hasText(properties.getPassword())) {
+            return new InMemoryUserDetailsManager();
+        }
+        // Accepts an encoded password such as {bcrypt}..., otherwise treats it as plain text.
+        String password = properties.getPassword().startsWith("{") ? properties.getPassword() : "{noop}" + properties.getPassword();
+        return new InMemoryUserDetailsManager(User.withUsername(properties.getUsername())
+                .password(password)
+                .roles(OPS_ROLE)
+                .build());
+    }
+}
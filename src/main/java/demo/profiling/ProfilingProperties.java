@@ -0,0 +1,47 @@
+package demo.profiling;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "demo.profiling")
+public class ProfilingProperties {
+
+    /**
+     * Credentials for the jfr and heaphistogram actuator endpoints. With no password set the endpoints are
+     * unreachable.
+     */
+    private String username = "ops";
+    private String password;
+
+    private OnDemand onDemand = new OnDemand();
+    private Continuous continuous = new Continuous();
+
+    @Data
+    public static class OnDemand {
+
+        /**
+         * JFR settings used when none are given: 'profile' for detailed sampling, 'default' for low overhead.
+         */
+        private String settings = "profile";
+
+        /**
+         * Recordings stop on their own after this long if they are not stopped through the endpoint.
+         */
+        private Duration maxDuration = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Continuous {
+
+        /**
+         * Keeps a rolling low-overhead recording that can be dumped after an incident.
+         */
+        private boolean enabled = true;
+        private Duration maxAge = Duration.ofMinutes(15);
+        private DataSize maxSize = DataSize.ofMegabytes(250);
+    }
+}
@@ -0,0 +1,120 @@
+package demo.purge;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.function.IntSupplier;
+import javax.sql.DataSource;
+
+import demo.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Hard deletes soft deleted items, then trims the item change log, in bounded batches on a schedule chosen to
+ * fall in quiet periods.
+ *
+ * Each batch commits on its own, so a large backlog never holds locks or builds up dead tuples in one long
+ * transaction. A run stops when a batch comes back short or after the configured number of batches.
+ *
+ * Every node schedules the purge, so on PostgreSQL a run first takes a session level advisory lock and skips if
+ * another node holds it. The lock lives on a connection kept for the run, and is released with it if the node dies.
+ */
+@Slf4j
+public class ItemPurger {
+
+    /**
+     * Advisory lock key shared by every node, the bytes of "itempurg".
+     */
+    static final long LOCK_KEY = 0x6974656d70757267L;
+    static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+    static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+
+    private final ItemRepository itemRepository;
+    private final DataSource dataSource;
+    private final PurgeProperties properties;
+    private final Clock clock;
+    private final boolean postgres;
+
+    /**
+     * @param postgres whether the database is PostgreSQL, which alone has the item change log and advisory locks
+     */
+    public ItemPurger(ItemRepository itemRepository, DataSource dataSource, PurgeProperties properties, Clock clock, boolean postgres) {
+        this.itemRepository = itemRepository;
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.clock = clock;
+        this.postgres = postgres;
+    }
+
+    @Scheduled(cron = "${demo.purge.cron:0 */10 1-5 * * *}")
+    public void purge() {
+        if(!postgres) {
+            purgeAll();
+            return;
+        }
+        try(Connection connection = dataSource.getConnection()) {
+            if(!callLockFunction(connection, TRY_LOCK_SQL)) {
+                log.info("Skipping purge, another node is running it");
+                return;
+            }
+            try {
+                purgeAll();
+            } finally {
+                callLockFunction(connection, UNLOCK_SQL);
+            }
+        } catch(SQLException e) {
+            log.error("Failed to take the purge lock: {}", e.getMessage());
+        }
+    }
+
+    private void purgeAll() {
+        Instant now = clock.instant();
+        Instant itemCutoff = now.minus(properties.getRetention());
+        purgeInBatches("deleted items", itemCutoff, () -> itemRepository.purgeDeleted(itemCutoff, properties.getBatchSize()));
+        if(!postgres) {
+            return;
+        }
+        Instant changeLogCutoff = now.minus(properties.getChangeLogRetention());
+        purgeInBatches("item change log entries", changeLogCutoff, () -> itemRepository.purgeChangeLog(changeLogCutoff, properties.getBatchSize()));
+    }
+
+    private boolean callLockFunction(Connection connection, String sql) throws SQLException {
+        try(PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try(ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private void purgeInBatches(String description, Instant cutoff, IntSupplier batch) {
+        long total = 0;
+        for(int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+            int purged;
+            try {
+                purged = batch.getAsInt();
+            } catch(DataAccessException e) {
+                log.error("Failed to purge {}: {}", description, e.getMessage());
+                break;
+            }
+            total += purged;
+            if(purged < properties.getBatchSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if(total > 0) {
+            log.info("Purged {} {} older than {}", total, description, cutoff);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package demo.purge;
+
+import java.time.Clock;
+import javax.sql.DataSource;
+
+import demo.repository.ItemRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableConfigurationProperties(PurgeProperties.class)
+@ConditionalOnProperty(name = "demo.purge.enabled", havingValue = "true", matchIfMissing = true)
+@Configuration
+public class PurgeConfiguration {
+
+    @Bean
+    public ItemPurger itemPurger(ItemRepository itemRepository, DataSource dataSource, PurgeProperties properties, DataSourceProperties dataSourceProperties) {
+        // The change log comes from a PostgreSQL only migration, and its trim relies on ctid.
+        boolean postgres = DatabaseDriver.fromJdbcUrl(dataSourceProperties.determineUrl()) == DatabaseDriver.POSTGRESQL;
+        return new ItemPurger(itemRepository, dataSource, properties, Clock.systemUTC(), postgres);
+    }
+}
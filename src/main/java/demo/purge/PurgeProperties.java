@@ -0,0 +1,38 @@
+package demo.purge;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "demo.purge")
+public class PurgeProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a soft deleted item is kept before it can be purged.
+     */
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * How long item change log entries are kept. Must exceed the oldest snapshot a node may catch up from.
+     */
+    private Duration changeLogRetention = Duration.ofDays(1);
+
+    /**
+     * Rows hard deleted per statement and transaction, which bounds lock hold times and WAL bursts.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Caps the work done per run so a backlog is worked off over several quiet periods.
+     */
+    private int maxBatchesPerRun = 100;
+
+    /**
+     * Pause between batches, giving autovacuum and replicas room to keep up.
+     */
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+}
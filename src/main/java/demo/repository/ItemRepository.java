@@ -1,9 +1,32 @@
 package demo.repository;
 
+import java.util.List;
 import java.util.UUID;
 
 import demo.domain.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface ItemRepository extends JpaRepository<Item, UUID> {
+public interface ItemRepository extends JpaRepository<Item, UUID>, ItemRepositoryCustom {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Item> findAll();
+
+    /**
+     * First page of the keyset paginated listing, ordered by id. Cached per page size, like findAll.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Item> findAllByOrderByIdAsc(Limit limit);
+
+    /**
+     * Subsequent pages of the keyset paginated listing. Seeks past the last id of the previous page on the
+     * primary key index rather than skipping an offset, so every page costs the same however deep it is. Cached per
+     * cursor and page size.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Item> findByIdGreaterThanOrderByIdAsc(UUID after, Limit limit);
 }
@@ -0,0 +1,38 @@
+package demo.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Mark the item deleted with a single UPDATE, without loading it first.
+     *
+     * Hibernate does not see the update, so the caller must evict the item from the second level cache once the
+     * transaction commits.
+     *
+     * @return the number of rows updated, 0 if there is no live item with the id
+     */
+    int softDeleteById(UUID id, Instant deletedAt);
+
+    /**
+     * Hard delete up to batchSize items marked deleted before the cutoff, in a transaction of its own.
+     *
+     * Leaves the second level cache alone: the rows were evicted when they were soft deleted and no query can see
+     * them since.
+     *
+     * @return the number of rows deleted
+     */
+    @Transactional
+    int purgeDeleted(Instant cutoff, int batchSize);
+
+    /**
+     * Delete up to batchSize change log entries older than the cutoff, in a transaction of its own.
+     *
+     * @return the number of entries deleted
+     */
+    @Transactional
+    int purgeChangeLog(Instant cutoff, int batchSize);
+}
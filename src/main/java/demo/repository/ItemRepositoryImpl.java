@@ -0,0 +1,63 @@
+package demo.repository;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final String SOFT_DELETE = "UPDATE demo.item SET deleted_at = ? WHERE id = ? AND deleted_at IS NULL";
+    private static final String PURGE_DELETED = "DELETE FROM demo.item WHERE id IN (SELECT id FROM demo.item WHERE deleted_at < :cutoff LIMIT :batchSize)";
+    private static final String PURGE_CHANGE_LOG = "DELETE FROM demo.item_change_log WHERE ctid IN (SELECT ctid FROM demo.item_change_log WHERE changed_at < :cutoff LIMIT :batchSize)";
+
+    private final EntityManager entityManager;
+
+    public ItemRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Plain JDBC on the transaction's connection rather than a bulk HQL or native query, either of which would have
+     * Hibernate evict the whole item region and query cache on every delete.
+     */
+    @Override
+    public int softDeleteById(UUID id, Instant deletedAt) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try(PreparedStatement statement = connection.prepareStatement(SOFT_DELETE)) {
+                statement.setObject(1, OffsetDateTime.ofInstant(deletedAt, ZoneOffset.UTC));
+                statement.setObject(2, id);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public int purgeDeleted(Instant cutoff, int batchSize) {
+        return executePurge(PURGE_DELETED, cutoff, batchSize);
+    }
+
+    @Override
+    public int purgeChangeLog(Instant cutoff, int batchSize) {
+        return executePurge(PURGE_CHANGE_LOG, cutoff, batchSize);
+    }
+
+    /**
+     * Native so it can see the rows that the entity's restriction hides. A native statement with no query space is
+     * assumed to touch every table, so Hibernate would evict the whole second level cache after each batch; the
+     * empty query space tells it the statement touches nothing it caches.
+     */
+    private int executePurge(String sql, Instant cutoff, int batchSize) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setParameter("cutoff", OffsetDateTime.ofInstant(cutoff, ZoneOffset.UTC))
+                .setParameter("batchSize", batchSize)
+                .executeUpdate();
+    }
+}
@@ -2,6 +2,7 @@ package demo.rest.api;
 
 import java.util.UUID;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonSerialize(using = GetItemResponseSerializer.class)
 public class GetItemResponse {
 
     private UUID id;
@@ -0,0 +1,54 @@
+package demo.rest.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes GetItemResponse without bean introspection, as it is serialized once per item in every list response.
+ *
+ * Field names are pre-encoded and the object size is declared up front so binary formats can write a
+ * definite length map. As with Jackson's own UUID handling, the id is written as 16 raw bytes where the format
+ * supports binary natively and as its canonical string otherwise.
+ */
+public class GetItemResponseSerializer extends StdSerializer<GetItemResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString COLOUR = new SerializedString("colour");
+
+    public GetItemResponseSerializer() {
+        super(GetItemResponse.class);
+    }
+
+    @Override
+    public void serialize(GetItemResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value, 3);
+        gen.writeFieldName(ID);
+        writeId(value.getId(), gen);
+        gen.writeFieldName(NAME);
+        gen.writeString(value.getName());
+        gen.writeFieldName(COLOUR);
+        gen.writeString(value.getColour());
+        gen.writeEndObject();
+    }
+
+    private static void writeId(UUID id, JsonGenerator gen) throws IOException {
+        if(id==null) {
+            gen.writeNull();
+        } else if(gen.canWriteBinaryNatively()) {
+            gen.writeBinary(ByteBuffer.allocate(16)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .array());
+        } else {
+            gen.writeString(id.toString());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package demo.rest.api;
 
 import java.util.List;
+import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +16,10 @@ import lombok.NoArgsConstructor;
 public class GetItemsResponse {
 
     private List<GetItemResponse> itemResponses;
+
+    /**
+     * The id to pass as 'after' to fetch the next page. Only set on a paginated response with more items to come.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UUID nextCursor;
 }
@@ -0,0 +1,23 @@
+package demo.rest.api;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportItemsResponse {
+
+    private long importedCount;
+    private long rejectedCount;
+
+    /**
+     * The first rejected rows, as line number and reason.
+     */
+    private List<String> rejections;
+}
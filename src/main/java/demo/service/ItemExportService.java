@@ -0,0 +1,113 @@
+package demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import demo.rest.api.ExportFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Dumps the item table with PostgreSQL COPY ... TO STDOUT, streaming the server's output straight to the caller
+ * without materializing rows in the JVM.
+ *
+ * Rows are ordered by id, so an interrupted export can be resumed by passing the last id received as the
+ * exclusive lower bound.
+ *
+ * Once demo.item is hash partitioned, a single partition can be exported on its own. Each partition is then an
+ * ordered index scan of one table rather than a merge across all of them, and a client can read every partition in
+ * parallel over separate requests.
+ */
+@Service
+@Slf4j
+public class ItemExportService {
+
+    private static final String ITEM_TABLE = "demo.item";
+
+    /**
+     * The partitions of demo.item in order of their hash remainder, or none if it is not partitioned.
+     */
+    private static final String SELECT_PARTITIONS = "SELECT quote_ident(n.nspname) || '.' || quote_ident(c.relname) "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_namespace n ON n.oid = c.relnamespace "
+            + "WHERE i.inhparent = 'demo.item'::regclass "
+            + "ORDER BY (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'remainder (\\d+)'))[1]::int";
+
+    private final DataSource dataSource;
+
+    public ItemExportService(@Autowired DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Transactional(readOnly = true)
+    public int getPartitionCount() throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return getPartitions(connection).size();
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Exports the whole table, or only the partition with the given hash remainder if one is given.
+     */
+    @Transactional(readOnly = true)
+    public long exportItems(ExportFormat format, Integer partition, UUID after, UUID upTo, OutputStream out) throws IOException, SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            String table = ITEM_TABLE;
+            if(partition != null) {
+                List<String> partitions = getPartitions(connection);
+                if(partition < 0 || partition >= partitions.size()) {
+                    throw new IllegalArgumentException("No item partition " + partition + " of " + partitions.size());
+                }
+                table = partitions.get(partition);
+            }
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(buildCopySql(format, table, after, upTo), out);
+            log.info("Exported {} items from {} as {}", rows, table, format);
+            return rows;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static List<String> getPartitions(Connection connection) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try(PreparedStatement statement = connection.prepareStatement(SELECT_PARTITIONS);
+            ResultSet resultSet = statement.executeQuery()) {
+            while(resultSet.next()) {
+                partitions.add(resultSet.getString(1));
+            }
+        }
+        return partitions;
+    }
+
+    static String buildCopySql(ExportFormat format, String table, UUID after, UUID upTo) {
+        // COPY cannot take bind parameters. The bounds are UUIDs, so their string form is safe to inline.
+        List<String> conditions = new ArrayList<>();
+        conditions.add("deleted_at IS NULL");
+        if(after != null) {
+            conditions.add("id > '" + after + "'");
+        }
+        if(upTo != null) {
+            conditions.add("id <= '" + upTo + "'");
+        }
+        // Only the first chunk of a CSV export carries the header, so resumed chunks can be appended.
+        String header = format == ExportFormat.CSV && after == null ? ", HEADER" : "";
+        // The table is either demo.item or a partition name quoted by the database.
+        return "COPY (SELECT id, name, colour FROM " + table + " WHERE " + String.join(" AND ", conditions) + " ORDER BY id) TO STDOUT WITH ("
+                + format.getCopyOptions() + header + ")";
+    }
+}
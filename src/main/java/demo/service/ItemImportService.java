@@ -0,0 +1,136 @@
+package demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import demo.cache.ItemInvalidationPublisher;
+import demo.rest.api.ImportItemsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk loads items from CSV with PostgreSQL COPY.
+ *
+ * Each line holds a name and a colour, optionally preceded by a name,colour header. Rows are validated as
+ * ItemService would validate them, given a generated id and streamed straight into COPY, so memory use does not
+ * depend on the size of the upload. Rejected rows are counted and skipped rather than aborting the load.
+ */
+@Service
+@Slf4j
+public class ItemImportService {
+
+    static final String COPY_SQL = "COPY demo.item (id, name, colour) FROM STDIN WITH (FORMAT csv)";
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private static final int MAX_NAME_LENGTH = 4096;
+    private static final int MAX_COLOUR_LENGTH = 512;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<ItemInvalidationPublisher> invalidationPublisher;
+
+    public ItemImportService(@Autowired DataSource dataSource, @Autowired EntityManagerFactory entityManagerFactory,
+                             @Autowired ObjectProvider<ItemInvalidationPublisher> invalidationPublisher) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    public ImportItemsResponse importItems(InputStream csv) throws IOException, SQLException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        List<String> rejections = new ArrayList<>();
+        long rejectedCount = 0;
+        long importedCount;
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGCopyOutputStream copyOut = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL, COPY_BUFFER_SIZE);
+            try {
+                Writer writer = new OutputStreamWriter(copyOut, StandardCharsets.UTF_8);
+                String line;
+                long lineNumber = 0;
+                while((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if(line.isBlank() || (lineNumber==1 && line.trim().equalsIgnoreCase("name,colour"))) {
+                        continue;
+                    }
+                    String rejection = writeRow(line, writer);
+                    if(rejection != null) {
+                        rejectedCount++;
+                        if(rejections.size() < MAX_REPORTED_REJECTIONS) {
+                            rejections.add("line " + lineNumber + ": " + rejection);
+                        }
+                    }
+                }
+                writer.flush();
+                importedCount = copyOut.endCopy();
+            } finally {
+                if(copyOut.isActive()) {
+                    copyOut.cancelCopy();
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        // COPY bypasses Hibernate, so cached item lists no longer reflect the table, here or on the other nodes.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        ItemInvalidationPublisher publisher = invalidationPublisher.getIfAvailable();
+        if(publisher != null) {
+            publisher.publishAll();
+        }
+        log.info("Imported {} items, rejected {}", importedCount, rejectedCount);
+        return ImportItemsResponse.builder()
+                .importedCount(importedCount)
+                .rejectedCount(rejectedCount)
+                .rejections(rejections)
+                .build();
+    }
+
+    /**
+     * Writes the row to COPY, returning the reason it was rejected or null if it was written.
+     */
+    private static String writeRow(String line, Writer writer) throws IOException {
+        List<String> fields = CsvLineParser.parse(line);
+        if(fields == null || fields.size() != 2) {
+            return "Expected two fields: name and colour.";
+        }
+        String name = fields.get(0);
+        String colour = fields.get(1);
+        if(name.trim().length()==0 || colour.trim().length()==0) {
+            return "Name and colour must be set.";
+        }
+        if(name.length() > MAX_NAME_LENGTH || colour.length() > MAX_COLOUR_LENGTH) {
+            return "Name must be at most " + MAX_NAME_LENGTH + " and colour at most " + MAX_COLOUR_LENGTH + " characters.";
+        }
+        if(name.indexOf('\u0000') >= 0 || colour.indexOf('\u0000') >= 0) {
+            return "Name and colour must not contain NUL characters.";
+        }
+        writer.write(UUID.randomUUID().toString());
+        writer.write(',');
+        CsvLineParser.writeQuoted(name, writer);
+        writer.write(',');
+        CsvLineParser.writeQuoted(colour, writer);
+        writer.write('\n');
+        return null;
+    }
+}
@@ -1,11 +1,13 @@
 package demo.service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import demo.domain.Item;
+import demo.domain.ItemSoftDeletedEvent;
 import demo.exception.InvalidItemException;
 import demo.exception.ItemNotFoundException;
 import demo.repository.ItemRepository;
@@ -15,6 +17,9 @@ import demo.rest.api.GetItemsResponse;
 import demo.rest.api.UpdateItemRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +28,14 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class ItemService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ItemService(@Autowired ItemRepository itemRepository) {
+    public ItemService(@Autowired ItemRepository itemRepository, @Autowired ApplicationEventPublisher eventPublisher) {
         this.itemRepository = itemRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public UUID createItem(CreateItemRequest request) {
@@ -54,7 +63,13 @@ public class ItemService {
             Item item = itemOpt.get();
             item.setName(request.getName());
             item.setColour(request.getColour());
-            itemRepository.save(item);
+            try {
+                // Flushed here so an item deleted since it was read surfaces as not found, not as a failed commit.
+                itemRepository.saveAndFlush(item);
+            } catch(OptimisticLockingFailureException e) {
+                log.error("Item with id: {} was deleted before the update.", itemId);
+                throw new ItemNotFoundException();
+            }
             log.info("Item updated with id: {} - name: {} - colour: {}", itemId, request.getName(), request.getColour());
         } else {
             log.error("Item with id: {} not found.", itemId);
@@ -62,6 +77,7 @@ public class ItemService {
         }
     }
 
+    @Transactional(readOnly = true)
     public GetItemResponse getItem(UUID itemId) {
         Optional<Item> itemOpt = itemRepository.findById(itemId);
         GetItemResponse getItemResponse;
@@ -79,23 +95,48 @@ public class ItemService {
         return getItemResponse;
     }
 
+    @Transactional(readOnly = true)
     public GetItemsResponse getItems() {
         List<Item> items = itemRepository.findAll();
-        List<GetItemResponse> itemResponses = items.stream()
+        return GetItemsResponse.builder().itemResponses(toItemResponses(items)).build();
+    }
+
+    /**
+     * Retrieve a page of items ordered by id, starting after the given id (or from the start if null).
+     *
+     * One more row than requested is read so that the next cursor is only returned when there is another page.
+     */
+    @Transactional(readOnly = true)
+    public GetItemsResponse getItems(int limit, UUID after) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<Item> items = after==null
+                ? itemRepository.findAllByOrderByIdAsc(Limit.of(pageSize + 1))
+                : itemRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1));
+        UUID nextCursor = null;
+        if(items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = items.get(pageSize - 1).getId();
+        }
+        return GetItemsResponse.builder().itemResponses(toItemResponses(items)).nextCursor(nextCursor).build();
+    }
+
+    private List<GetItemResponse> toItemResponses(List<Item> items) {
+        return items.stream()
                 .map(item -> GetItemResponse.builder()
                         .id(item.getId())
                         .name(item.getName())
                         .colour(item.getColour())
                         .build())
                 .collect(Collectors.toList());
-        return GetItemsResponse.builder().itemResponses(itemResponses).build();
     }
 
+    /**
+     * Soft delete the item with a single UPDATE. The row is hard deleted later, off the request path, by the purger.
+     */
     public void deleteItem(UUID itemId) {
-        Optional<Item> itemOpt = itemRepository.findById(itemId);
-        if(itemOpt.isPresent()) {
-            itemRepository.delete(itemOpt.get());
-            log.info("Deleted item with id: {}", itemOpt.get().getId());
+        if(itemRepository.softDeleteById(itemId, Instant.now()) > 0) {
+            eventPublisher.publishEvent(new ItemSoftDeletedEvent(itemId));
+            log.info("Deleted item with id: {}", itemId);
         } else {
             log.error("Item with id: {} not found.", itemId);
             throw new ItemNotFoundException();
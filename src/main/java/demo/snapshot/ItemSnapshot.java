@@ -0,0 +1,287 @@
+package demo.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable snapshot of the live items, memory mapped from a file so it costs no heap and survives restarts.
+ *
+ * The file is laid out as:
+ * <pre>
+ * header  64 bytes  magic, version, change log watermark, time of the last full build, item count, slot count,
+ *                   index offset, data offset, data length and time of the last refresh
+ * index   24 bytes per slot  an open addressing (linear probing) hash table of id msb, id lsb, fragment offset
+ *                            and fragment length, with a length of 0 marking an empty slot
+ * data    the JSON of every GetItemResponse, separated by commas
+ * </pre>
+ * The data region is therefore the body of the list response's array as is, and each slot points at the body of
+ * the single item response.
+ *
+ * Items changed since the file was written are held on the heap, over the file, until there are enough of them to
+ * be worth writing a new one. The list is then served as the runs of the data region between the changed items,
+ * followed by their new versions.
+ */
+public final class ItemSnapshot {
+
+    static final int MAGIC = 0x49544D53;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 24;
+
+    static final int MAGIC_POSITION = 0;
+    static final int VERSION_POSITION = 4;
+    static final int CHANGES_SINCE_POSITION = 8;
+    static final int FULL_BUILD_AT_POSITION = 16;
+    static final int ITEM_COUNT_POSITION = 24;
+    static final int SLOT_COUNT_POSITION = 28;
+    static final int INDEX_OFFSET_POSITION = 32;
+    static final int DATA_OFFSET_POSITION = 36;
+    static final int DATA_LENGTH_POSITION = 40;
+    static final int REFRESHED_AT_POSITION = 48;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long changesSince;
+    private final long fullBuildAt;
+    private final long refreshedAt;
+    private final int itemCount;
+    private final int slotCount;
+    private final int indexOffset;
+    private final int dataOffset;
+    private final int dataLength;
+    // The JSON of each item changed since the file was written, or null if it was deleted.
+    private final Map<UUID, byte[]> changes;
+    private final int size;
+    // Offsets and lengths of the fragments the changes replace, packed into a long and sorted.
+    private final long[] replaced;
+
+    private ItemSnapshot(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if(buffer.capacity() < HEADER_SIZE || buffer.getInt(MAGIC_POSITION) != MAGIC) {
+            throw new IOException(path + " is not an item snapshot");
+        }
+        if(buffer.getInt(VERSION_POSITION) != VERSION) {
+            throw new IOException(path + " has unsupported snapshot version " + buffer.getInt(VERSION_POSITION));
+        }
+        this.changesSince = buffer.getLong(CHANGES_SINCE_POSITION);
+        this.fullBuildAt = buffer.getLong(FULL_BUILD_AT_POSITION);
+        this.refreshedAt = buffer.getLong(REFRESHED_AT_POSITION);
+        this.itemCount = buffer.getInt(ITEM_COUNT_POSITION);
+        this.slotCount = buffer.getInt(SLOT_COUNT_POSITION);
+        this.indexOffset = buffer.getInt(INDEX_OFFSET_POSITION);
+        this.dataOffset = buffer.getInt(DATA_OFFSET_POSITION);
+        this.dataLength = buffer.getInt(DATA_LENGTH_POSITION);
+        if(Integer.bitCount(slotCount) != 1 || itemCount >= slotCount
+                || indexOffset != HEADER_SIZE || dataOffset != HEADER_SIZE + (long) slotCount * SLOT_SIZE
+                || (long) dataOffset + dataLength != buffer.capacity()) {
+            throw new IOException(path + " is truncated or corrupt");
+        }
+        this.changes = Map.of();
+        this.size = itemCount;
+        this.replaced = new long[0];
+    }
+
+    private ItemSnapshot(ItemSnapshot file, Map<UUID, byte[]> changes, long changesSince, long refreshedAt) {
+        this.path = file.path;
+        this.buffer = file.buffer;
+        this.changesSince = changesSince;
+        this.fullBuildAt = file.fullBuildAt;
+        this.refreshedAt = refreshedAt;
+        this.itemCount = file.itemCount;
+        this.slotCount = file.slotCount;
+        this.indexOffset = file.indexOffset;
+        this.dataOffset = file.dataOffset;
+        this.dataLength = file.dataLength;
+        this.changes = Collections.unmodifiableMap(changes);
+        int size = itemCount;
+        long[] replaced = new long[changes.size()];
+        int count = 0;
+        for(Map.Entry<UUID, byte[]> change : changes.entrySet()) {
+            int position = findSlot(change.getKey());
+            if(position >= 0) {
+                replaced[count++] = ((long) buffer.getInt(position + 16) << 32) | buffer.getInt(position + 20);
+            }
+            if(position >= 0 && change.getValue() == null) {
+                size--;
+            } else if(position < 0 && change.getValue() != null) {
+                size++;
+            }
+        }
+        this.size = size;
+        this.replaced = Arrays.copyOf(replaced, count);
+        Arrays.sort(this.replaced);
+    }
+
+    /**
+     * Map an existing snapshot file. The mapping stays valid after the file is replaced or deleted.
+     */
+    public static ItemSnapshot open(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map");
+            }
+            return new ItemSnapshot(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * A snapshot with further changes applied over this one, sharing its mapping.
+     *
+     * @param updates the JSON of each changed item, or null for each deleted one
+     */
+    ItemSnapshot withChanges(Map<UUID, byte[]> updates, long changesSince, long refreshedAt) {
+        Map<UUID, byte[]> merged = new LinkedHashMap<>(changes);
+        for(Map.Entry<UUID, byte[]> update : updates.entrySet()) {
+            if(update.getValue() == null && findSlot(update.getKey()) < 0) {
+                // Added and deleted again since the file was written, so there is nothing to hide.
+                merged.remove(update.getKey());
+            } else {
+                merged.put(update.getKey(), update.getValue());
+            }
+        }
+        return new ItemSnapshot(this, merged, changesSince, refreshedAt);
+    }
+
+    /**
+     * @return the JSON of the item, or null if it is not in the snapshot
+     */
+    public ByteBuffer getItem(UUID id) {
+        if(changes.containsKey(id)) {
+            byte[] fragment = changes.get(id);
+            return fragment == null ? null : ByteBuffer.wrap(fragment).asReadOnlyBuffer();
+        }
+        int position = findSlot(id);
+        return position < 0 ? null : buffer.slice(dataOffset + buffer.getInt(position + 16), buffer.getInt(position + 20));
+    }
+
+    /**
+     * @return the JSON of every item, as comma separated runs to be joined with commas
+     */
+    public List<ByteBuffer> getItems() {
+        List<ByteBuffer> items = new ArrayList<>(replaced.length + 1 + changes.size());
+        int start = 0;
+        for(long fragment : replaced) {
+            int offset = (int) (fragment >>> 32);
+            // Leave out the comma ahead of the replaced fragment, and skip the one after it.
+            if(offset - 1 > start) {
+                items.add(buffer.slice(dataOffset + start, offset - 1 - start));
+            }
+            start = offset + (int) fragment + 1;
+        }
+        if(start < dataLength) {
+            items.add(buffer.slice(dataOffset + start, dataLength - start));
+        }
+        for(byte[] fragment : changes.values()) {
+            if(fragment != null) {
+                items.add(ByteBuffer.wrap(fragment).asReadOnlyBuffer());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Visit every item, those in the file in the order their JSON appears in it and then the changed ones.
+     */
+    void forEach(EntryVisitor visitor) throws IOException {
+        // Each entry packs a fragment offset with its slot, so sorting them restores the data order.
+        long[] entries = new long[itemCount];
+        int count = 0;
+        for(int slot = 0; slot < slotCount; slot++) {
+            int position = indexOffset + slot * SLOT_SIZE;
+            if(buffer.getInt(position + 20) != 0
+                    && (changes.isEmpty() || !changes.containsKey(new UUID(buffer.getLong(position), buffer.getLong(position + 8))))) {
+                entries[count++] = ((long) buffer.getInt(position + 16) << 32) | slot;
+            }
+        }
+        Arrays.sort(entries, 0, count);
+        for(int i = 0; i < count; i++) {
+            int position = indexOffset + (int) entries[i] * SLOT_SIZE;
+            visitor.visit(buffer.getLong(position), buffer.getLong(position + 8),
+                    buffer.slice(dataOffset + buffer.getInt(position + 16), buffer.getInt(position + 20)));
+        }
+        for(Map.Entry<UUID, byte[]> change : changes.entrySet()) {
+            if(change.getValue() != null) {
+                visitor.visit(change.getKey().getMostSignificantBits(), change.getKey().getLeastSignificantBits(), ByteBuffer.wrap(change.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return the position of the item's slot in the file, or -1 if the file does not hold it
+     */
+    private int findSlot(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int mask = slotCount - 1;
+        for(int slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            int position = indexOffset + slot * SLOT_SIZE;
+            if(buffer.getInt(position + 20) == 0) {
+                return -1;
+            }
+            if(buffer.getLong(position) == msb && buffer.getLong(position + 8) == lsb) {
+                return position;
+            }
+        }
+    }
+
+    static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * The change log watermark: changes by transactions with this id or later may not be in the snapshot yet, and
+     * all earlier ones are.
+     */
+    public long getChangesSince() {
+        return changesSince;
+    }
+
+    /**
+     * When the snapshot was last built in full from the item table, in milliseconds since the epoch.
+     */
+    public long getFullBuildAt() {
+        return fullBuildAt;
+    }
+
+    /**
+     * When the change log was last read up to the watermark, in milliseconds since the epoch.
+     */
+    public long getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * @return the number of items changed since the file was written, held on the heap
+     */
+    public int getChangeCount() {
+        return changes.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    interface EntryVisitor {
+
+        void visit(long msb, long lsb, ByteBuffer fragment) throws IOException;
+    }
+}
@@ -0,0 +1,42 @@
+package demo.snapshot;
+
+import java.time.Clock;
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Serves item reads from a memory mapped snapshot kept up to date from the PostgreSQL change log.
+ */
+@EnableConfigurationProperties(ItemSnapshotProperties.class)
+@ConditionalOnProperty(name = "demo.snapshot.enabled", havingValue = "true")
+@Configuration
+public class ItemSnapshotConfiguration {
+
+    @Bean
+    public ItemSnapshotManager itemSnapshotManager(DataSource dataSource, ObjectMapper objectMapper, ItemSnapshotProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        ItemSnapshotManager manager = new ItemSnapshotManager(dataSource, objectMapper, properties, Clock.systemUTC());
+        Gauge.builder("items.snapshot.size", manager, m -> m.getSnapshot() == null ? 0 : m.getSnapshot().size())
+                .description("Items in the current snapshot")
+                .register(meterRegistry);
+        return manager;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ItemSnapshotFilter> itemSnapshotFilter(ItemSnapshotManager itemSnapshotManager) {
+        FilterRegistrationBean<ItemSnapshotFilter> registration = new FilterRegistrationBean<>(new ItemSnapshotFilter(itemSnapshotManager));
+        registration.addUrlPatterns("/v1/items", "/v1/items/*");
+        // Ahead of the concurrency limits and query statistics, which only concern requests that reach the database.
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,118 @@
+package demo.snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Answers plain JSON reads of the item list and of single items from the snapshot, without reaching the
+ * controller, Hibernate or the database.
+ *
+ * Anything else is passed on: other methods, requests with a query string (such as paginated lists), clients
+ * asking for a binary format, and ids not in the snapshot, so an item created since the last refresh is still
+ * found.
+ */
+public class ItemSnapshotFilter extends OncePerRequestFilter {
+
+    private static final String ITEMS_PATH = "/v1/items";
+    private static final byte[] LIST_PREFIX = "{\"itemResponses\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LIST_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final ItemSnapshotManager manager;
+
+    public ItemSnapshotFilter(ItemSnapshotManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ItemSnapshot snapshot = manager.getSnapshot();
+        if(snapshot == null || !"GET".equals(request.getMethod()) || request.getQueryString() != null || !acceptsJson(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if(ITEMS_PATH.equals(path)) {
+            List<ByteBuffer> items = snapshot.getItems();
+            long length = LIST_PREFIX.length + Math.max(items.size() - 1, 0) + LIST_SUFFIX.length;
+            for(ByteBuffer run : items) {
+                length += run.remaining();
+            }
+            write(response, length, LIST_PREFIX, items, LIST_SUFFIX);
+            return;
+        }
+        UUID id = path.startsWith(ITEMS_PATH + "/") ? parseId(path.substring(ITEMS_PATH.length() + 1)) : null;
+        ByteBuffer item = id != null ? snapshot.getItem(id) : null;
+        if(item == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        write(response, item.remaining(), null, List.of(item), null);
+    }
+
+    /**
+     * Writes the body parts joined with commas, between the prefix and suffix.
+     */
+    private static void write(HttpServletResponse response, long contentLength, byte[] prefix, List<ByteBuffer> body, byte[] suffix) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLengthLong(contentLength);
+        OutputStream out = response.getOutputStream();
+        if(prefix != null) {
+            out.write(prefix);
+        }
+        WritableByteChannel channel = Channels.newChannel(out);
+        for(int i = 0; i < body.size(); i++) {
+            if(i > 0) {
+                out.write(',');
+            }
+            ByteBuffer part = body.get(i);
+            while(part.hasRemaining()) {
+                channel.write(part);
+            }
+        }
+        if(suffix != null) {
+            out.write(suffix);
+        }
+    }
+
+    /**
+     * Only when content negotiation could not pick anything but JSON, so a client preferring CBOR or Smile still
+     * gets it from the controller.
+     */
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if(accept == null) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            return mediaTypes.stream().anyMatch(mediaType -> mediaType.includes(MediaType.APPLICATION_JSON))
+                    && mediaTypes.stream().allMatch(mediaType -> mediaType.isWildcardType() || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON));
+        } catch(InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch(IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
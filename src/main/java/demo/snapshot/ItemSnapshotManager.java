@@ -0,0 +1,265 @@
+package demo.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.rest.api.GetItemResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps the item snapshot up to date and hands the current one to readers.
+ *
+ * The first refresh builds the snapshot in full by streaming the item table. Later refreshes read the ids logged
+ * in demo.item_change_log by transactions that have finished since the snapshot's watermark, re-read just those
+ * rows and apply the ones that differ over the mapped file. The file is only rewritten once enough changes have
+ * built up. Each new snapshot is swapped in atomically, and readers holding the previous one keep a valid mapping
+ * until they are done with it.
+ *
+ * The watermark is the oldest transaction still running, as PostgreSQL reports it, and entries are stamped with
+ * their transaction's id. A change is therefore read once its transaction has finished however long it ran, and
+ * never again. The trigger filling the change log is installed by the database migrations.
+ */
+@Slf4j
+public class ItemSnapshotManager {
+
+    static final String FILE_NAME = "items.snapshot";
+
+    static final String TRIGGER_NAME = "item_change_log_trigger";
+
+    /**
+     * Logged when the trigger is installed or removed, as changes around that time may have gone unlogged.
+     */
+    static final UUID REBUILD_MARKER = new UUID(0, 0);
+
+    private static final String SELECT_TRIGGER = "SELECT 1 FROM information_schema.triggers"
+            + " WHERE event_object_schema = 'demo' AND event_object_table = 'item' AND trigger_name = '" + TRIGGER_NAME + "'";
+    private static final String SELECT_XMIN = "SELECT pg_snapshot_xmin(pg_current_snapshot())";
+    private static final String SELECT_ALL = "SELECT id, name, colour FROM demo.item WHERE deleted_at IS NULL";
+    private static final String SELECT_CHANGED_IDS = "SELECT DISTINCT item_id FROM demo.item_change_log WHERE xid >= ?::xid8 AND xid < ?::xid8";
+    private static final String SELECT_BY_IDS = "SELECT id, name, colour FROM demo.item WHERE deleted_at IS NULL AND id = ANY (?)";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ItemSnapshotProperties properties;
+    private final Clock clock;
+    private final Path file;
+    private final AtomicReference<ItemSnapshot> current = new AtomicReference<>();
+    private long watermark;
+    private volatile long refreshedAt;
+
+    public ItemSnapshotManager(DataSource dataSource, ObjectMapper objectMapper, ItemSnapshotProperties properties, Clock clock) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+        this.file = properties.getDirectory().resolve(FILE_NAME);
+    }
+
+    /**
+     * @return the current snapshot, or null until the first refresh succeeds and whenever refreshes have been
+     * failing for longer than the maximum staleness, so that reads go to the controller
+     */
+    public ItemSnapshot getSnapshot() {
+        ItemSnapshot snapshot = current.get();
+        if(snapshot == null || clock.millis() - refreshedAt > properties.getMaxStaleness().toMillis()) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Map the file left by a previous run, if it is recent enough to catch up from the change log. It is only
+     * served once the first refresh has caught it up.
+     */
+    @PostConstruct
+    public void warmStart() throws IOException {
+        Files.createDirectories(properties.getDirectory());
+        if(!Files.exists(file)) {
+            return;
+        }
+        try {
+            ItemSnapshot snapshot = ItemSnapshot.open(file);
+            if(clock.millis() - snapshot.getRefreshedAt() > properties.getMaxWarmStartAge().toMillis()) {
+                log.info("Existing item snapshot is older than {}, rebuilding it", properties.getMaxWarmStartAge());
+                return;
+            }
+            watermark = snapshot.getChangesSince();
+            current.set(snapshot);
+            log.info("Mapped existing item snapshot of {} items, catching up from transaction {}", snapshot.size(), watermark);
+        } catch(IOException e) {
+            log.warn("Ignoring unreadable item snapshot: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${demo.snapshot.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            ItemSnapshot snapshot = current.get();
+            if(snapshot == null || clock.millis() - snapshot.getFullBuildAt() > properties.getFullRebuildInterval().toMillis()) {
+                rebuild();
+            } else {
+                refreshIncrementally(snapshot);
+            }
+        } catch(IOException | SQLException e) {
+            log.error("Failed to refresh item snapshot: " + e.getMessage());
+        }
+    }
+
+    void rebuild() throws IOException, SQLException {
+        long start = clock.millis();
+        try(Connection connection = dataSource.getConnection();
+            ItemSnapshotWriter writer = new ItemSnapshotWriter(properties.getDirectory())) {
+            if(!isChangeLogged(connection)) {
+                current.set(null);
+                log.error("Not serving the item snapshot as the item change log trigger is missing. The database"
+                        + " migrations install it on a node started with demo.snapshot.enabled set.");
+                return;
+            }
+            long newWatermark = currentXmin(connection);
+            // The PostgreSQL driver only streams with a cursor inside a transaction, otherwise it reads every row.
+            connection.setAutoCommit(false);
+            try(PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+                statement.setFetchSize(properties.getFetchSize());
+                try(ResultSet resultSet = statement.executeQuery()) {
+                    while(resultSet.next()) {
+                        writer.add(resultSet.getObject(1, UUID.class), fragment(resultSet));
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            swap(writer.commit(file, newWatermark, start, start), newWatermark, start);
+        }
+        log.info("Built item snapshot of {} items in {}ms", current.get().size(), clock.millis() - start);
+    }
+
+    void refreshIncrementally(ItemSnapshot snapshot) throws IOException, SQLException {
+        long start = clock.millis();
+        Set<UUID> changedIds = new HashSet<>();
+        Map<UUID, byte[]> rows = new HashMap<>();
+        long newWatermark;
+        boolean rebuild;
+        try(Connection connection = dataSource.getConnection()) {
+            // Taken first, so every transaction below it has finished before the changed rows are read.
+            newWatermark = currentXmin(connection);
+            try(PreparedStatement statement = connection.prepareStatement(SELECT_CHANGED_IDS)) {
+                statement.setString(1, Long.toString(watermark));
+                statement.setString(2, Long.toString(newWatermark));
+                try(ResultSet resultSet = statement.executeQuery()) {
+                    while(resultSet.next()) {
+                        changedIds.add(resultSet.getObject(1, UUID.class));
+                    }
+                }
+            }
+            rebuild = changedIds.contains(REBUILD_MARKER) || changedIds.size() > properties.getMaxIncrementalChanges();
+            if(!rebuild && !changedIds.isEmpty()) {
+                Array ids = connection.createArrayOf("uuid", changedIds.toArray());
+                try(PreparedStatement statement = connection.prepareStatement(SELECT_BY_IDS)) {
+                    statement.setArray(1, ids);
+                    try(ResultSet resultSet = statement.executeQuery()) {
+                        while(resultSet.next()) {
+                            rows.put(resultSet.getObject(1, UUID.class), fragment(resultSet));
+                        }
+                    }
+                } finally {
+                    ids.free();
+                }
+            }
+        }
+
+        if(rebuild) {
+            if(changedIds.contains(REBUILD_MARKER)) {
+                log.info("The item change log trigger was installed or removed, rebuilding the item snapshot in full");
+            } else {
+                log.info("{} items changed, rebuilding the item snapshot in full", changedIds.size());
+            }
+            rebuild();
+            return;
+        }
+
+        // Ids are logged on every write, so only apply those that differ from what the snapshot already holds.
+        Map<UUID, byte[]> changes = new HashMap<>();
+        for(UUID id : changedIds) {
+            if(isChanged(snapshot.getItem(id), rows.get(id))) {
+                changes.put(id, rows.get(id));
+            }
+        }
+        if(changes.isEmpty()) {
+            watermark = newWatermark;
+            refreshedAt = start;
+            return;
+        }
+        ItemSnapshot updated = snapshot.withChanges(changes, newWatermark, start);
+        if(updated.getChangeCount() > properties.getMaxOverlayChanges()) {
+            int changeCount = updated.getChangeCount();
+            try(ItemSnapshotWriter writer = new ItemSnapshotWriter(properties.getDirectory())) {
+                writer.addAll(updated);
+                updated = writer.commit(file, newWatermark, updated.getFullBuildAt(), start);
+            }
+            log.debug("Wrote {} item changes into a new snapshot file", changeCount);
+        }
+        swap(updated, newWatermark, start);
+        log.debug("Applied {} item changes to the snapshot", changes.size());
+    }
+
+    private void swap(ItemSnapshot snapshot, long newWatermark, long newRefreshedAt) {
+        // The previous mapping is released once the last reader drops it and it is garbage collected.
+        current.set(snapshot);
+        watermark = newWatermark;
+        refreshedAt = newRefreshedAt;
+    }
+
+    private byte[] fragment(ResultSet resultSet) throws SQLException, IOException {
+        // The same mapper as the controllers, so the bytes match what they would have written.
+        return objectMapper.writeValueAsBytes(GetItemResponse.builder()
+                .id(resultSet.getObject(1, UUID.class))
+                .name(resultSet.getString(2))
+                .colour(resultSet.getString(3))
+                .build());
+    }
+
+    private static boolean isChanged(ByteBuffer existing, byte[] updated) {
+        if(existing == null || updated == null) {
+            return existing != null || updated != null;
+        }
+        return !existing.equals(ByteBuffer.wrap(updated));
+    }
+
+    private static boolean isChangeLogged(Connection connection) throws SQLException {
+        try(PreparedStatement statement = connection.prepareStatement(SELECT_TRIGGER);
+            ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    /**
+     * The oldest transaction still running. Every transaction with a lower id has committed or rolled back.
+     */
+    private static long currentXmin(Connection connection) throws SQLException {
+        try(PreparedStatement statement = connection.prepareStatement(SELECT_XMIN);
+            ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            // The driver has no mapping for xid8, so it is read as text.
+            return Long.parseLong(resultSet.getString(1));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package demo.snapshot;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "demo.snapshot")
+public class ItemSnapshotProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Where the snapshot file is kept. On a persistent volume, a restarted node serves reads as soon as it has
+     * mapped the file and caught up from the change log.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "item-snapshot");
+
+    /**
+     * Reads are passed on to the controller once the snapshot has gone this long without a successful refresh,
+     * rather than served ever staler.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(30);
+
+    /**
+     * A full rebuild on this interval bounds the effect of any change an incremental refresh missed.
+     */
+    private Duration fullRebuildInterval = Duration.ofHours(1);
+
+    /**
+     * An existing file last refreshed longer ago than this is rebuilt rather than caught up. Must stay well inside
+     * the change log retention of the purger.
+     */
+    private Duration maxWarmStartAge = Duration.ofHours(12);
+
+    /**
+     * Above this many changed items a full rebuild is cheaper than merging, e.g. after a bulk import.
+     */
+    private int maxIncrementalChanges = 50000;
+
+    /**
+     * Changed items held on the heap over the snapshot file. Past this many they are written into a new file, so
+     * small refreshes cost no file writes and the list stays a few large runs of the file.
+     */
+    private int maxOverlayChanges = 1000;
+
+    /**
+     * Rows fetched per round trip while streaming the item table during a full build.
+     */
+    private int fetchSize = 1000;
+}
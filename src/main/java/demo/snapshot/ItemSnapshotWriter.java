@@ -0,0 +1,163 @@
+package demo.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Builds a new snapshot file. Fragments are streamed to a temporary data file as they are added, keeping only the
+ * ids, offsets and lengths on the heap, and the index is written straight into the mapped output file on commit.
+ *
+ * The finished file is moved over the target in one step, so readers only ever map a complete snapshot.
+ */
+public class ItemSnapshotWriter implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path directory;
+    private final Path dataFile;
+    private final OutputStream data;
+    private byte[] copyBuffer = new byte[1024];
+    private long[] msbs = new long[INITIAL_CAPACITY];
+    private long[] lsbs = new long[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int count;
+    private long dataLength;
+    private Path outputFile;
+
+    public ItemSnapshotWriter(Path directory) throws IOException {
+        this.directory = directory;
+        this.dataFile = Files.createTempFile(directory, "items", ".data");
+        this.data = new BufferedOutputStream(Files.newOutputStream(dataFile), 64 * 1024);
+    }
+
+    /**
+     * Add an item's JSON. Each id must be added at most once.
+     */
+    public void add(UUID id, byte[] fragment) throws IOException {
+        append(id.getMostSignificantBits(), id.getLeastSignificantBits(), fragment, fragment.length);
+    }
+
+    /**
+     * Copy every item of an existing snapshot, including the changes it holds over its file, in the order it
+     * visits them.
+     */
+    public void addAll(ItemSnapshot snapshot) throws IOException {
+        snapshot.forEach((msb, lsb, fragment) -> {
+            int length = fragment.remaining();
+            if(copyBuffer.length < length) {
+                copyBuffer = new byte[Math.max(length, copyBuffer.length * 2)];
+            }
+            fragment.get(copyBuffer, 0, length);
+            append(msb, lsb, copyBuffer, length);
+        });
+    }
+
+    private void append(long msb, long lsb, byte[] fragment, int length) throws IOException {
+        if(length == 0) {
+            throw new IllegalArgumentException("Item fragments cannot be empty");
+        }
+        if(count == msbs.length) {
+            int capacity = count * 2;
+            msbs = Arrays.copyOf(msbs, capacity);
+            lsbs = Arrays.copyOf(lsbs, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        if(count > 0) {
+            data.write(',');
+            dataLength++;
+        }
+        if(dataLength + length > Integer.MAX_VALUE) {
+            throw new IOException("Item snapshot exceeds the 2GB that can be mapped");
+        }
+        msbs[count] = msb;
+        lsbs[count] = lsb;
+        offsets[count] = (int) dataLength;
+        lengths[count] = length;
+        count++;
+        data.write(fragment, 0, length);
+        dataLength += length;
+    }
+
+    /**
+     * Write the header and index, append the data and move the finished file over the target.
+     *
+     * @param changesSince the change log watermark, the oldest transaction id whose changes may be missing
+     * @param fullBuildAt when the items were last read in full, in milliseconds since the epoch
+     * @param refreshedAt when the change log was last read up to the watermark, in milliseconds since the epoch
+     * @return the new snapshot, mapped from the target
+     */
+    public ItemSnapshot commit(Path target, long changesSince, long fullBuildAt, long refreshedAt) throws IOException {
+        data.close();
+        // At most half full, so probe sequences stay short.
+        int slotCount = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        long dataOffset = ItemSnapshot.HEADER_SIZE + (long) slotCount * ItemSnapshot.SLOT_SIZE;
+        if(dataOffset + dataLength > Integer.MAX_VALUE) {
+            throw new IOException("Item snapshot exceeds the 2GB that can be mapped");
+        }
+
+        outputFile = Files.createTempFile(directory, "items", ".snapshot.tmp");
+        try(FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file with zeros, which leaves every slot empty.
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataOffset);
+            index.putInt(ItemSnapshot.MAGIC_POSITION, ItemSnapshot.MAGIC);
+            index.putInt(ItemSnapshot.VERSION_POSITION, ItemSnapshot.VERSION);
+            index.putLong(ItemSnapshot.CHANGES_SINCE_POSITION, changesSince);
+            index.putLong(ItemSnapshot.FULL_BUILD_AT_POSITION, fullBuildAt);
+            index.putInt(ItemSnapshot.ITEM_COUNT_POSITION, count);
+            index.putInt(ItemSnapshot.SLOT_COUNT_POSITION, slotCount);
+            index.putInt(ItemSnapshot.INDEX_OFFSET_POSITION, ItemSnapshot.HEADER_SIZE);
+            index.putInt(ItemSnapshot.DATA_OFFSET_POSITION, (int) dataOffset);
+            index.putInt(ItemSnapshot.DATA_LENGTH_POSITION, (int) dataLength);
+            index.putLong(ItemSnapshot.REFRESHED_AT_POSITION, refreshedAt);
+            int mask = slotCount - 1;
+            for(int i = 0; i < count; i++) {
+                int slot = ItemSnapshot.hash(msbs[i], lsbs[i]) & mask;
+                while(index.getInt(ItemSnapshot.HEADER_SIZE + slot * ItemSnapshot.SLOT_SIZE + 20) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                int position = ItemSnapshot.HEADER_SIZE + slot * ItemSnapshot.SLOT_SIZE;
+                index.putLong(position, msbs[i]);
+                index.putLong(position + 8, lsbs[i]);
+                index.putInt(position + 16, offsets[i]);
+                index.putInt(position + 20, lengths[i]);
+            }
+            index.force();
+
+            try(FileChannel source = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+                long transferred = 0;
+                while(transferred < dataLength) {
+                    transferred += channel.transferFrom(source, dataOffset + transferred, dataLength - transferred);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(outputFile, target, StandardCopyOption.ATOMIC_MOVE);
+        outputFile = null;
+        return ItemSnapshot.open(target);
+    }
+
+    /**
+     * Remove the temporary files. The committed snapshot, if any, is kept.
+     */
+    @Override
+    public void close() throws IOException {
+        data.close();
+        Files.deleteIfExists(dataFile);
+        if(outputFile != null) {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+}
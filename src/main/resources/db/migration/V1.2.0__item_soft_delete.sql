@@ -0,0 +1,2 @@
+-- Deleted items are marked with deleted_at and hard deleted later in batches by the purger.
+ALTER TABLE demo.item ADD COLUMN deleted_at TIMESTAMP WITH TIME ZONE;
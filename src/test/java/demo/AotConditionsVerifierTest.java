@@ -0,0 +1,77 @@
+package demo;
+
+import demo.cache.CacheInvalidationConfiguration;
+import demo.concurrency.ConcurrencyLimitConfiguration;
+import demo.instrumentation.QueryInstrumentationConfiguration;
+import demo.purge.PurgeConfiguration;
+import demo.snapshot.ItemSnapshotConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AotConditionsVerifierTest {
+
+    private DefaultListableBeanFactory beanFactory;
+    private MockEnvironment environment;
+
+    /**
+     * A build with the defaults from application.yml.
+     */
+    @BeforeEach
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("cacheInvalidationConfiguration", new RootBeanDefinition(CacheInvalidationConfiguration.class));
+        beanFactory.registerBeanDefinition("purgeConfiguration", new RootBeanDefinition(PurgeConfiguration.class));
+        beanFactory.registerBeanDefinition("queryInstrumentationConfiguration", new RootBeanDefinition(QueryInstrumentationConfiguration.class));
+        beanFactory.registerBeanDefinition("concurrencyLimitConfiguration", new RootBeanDefinition(ConcurrencyLimitConfiguration.class));
+        environment = new MockEnvironment()
+                .withProperty("demo.datasource.replica.enabled", "false")
+                .withProperty("demo.snapshot.enabled", "false")
+                .withProperty("demo.cache.invalidation.enabled", "true");
+    }
+
+    @Test
+    public void testVerify_FlagsMatchBuild() {
+        AotConditionsVerifier.verify(beanFactory, environment);
+    }
+
+    @Test
+    public void testVerify_FlagEnabledAfterBuild() {
+        environment.setProperty("demo.snapshot.enabled", "TRUE");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> AotConditionsVerifier.verify(beanFactory, environment));
+
+        assertThat(exception.getMessage(), allOf(
+                containsString("demo.snapshot.enabled (ITEM_SNAPSHOT_ENABLED) is true but was false"),
+                not(containsString("demo.purge.enabled"))));
+    }
+
+    @Test
+    public void testVerify_FlagsDisabledAfterBuild() {
+        environment.setProperty("demo.purge.enabled", "false");
+        environment.setProperty("demo.cache.invalidation.enabled", "false");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> AotConditionsVerifier.verify(beanFactory, environment));
+
+        assertThat(exception.getMessage(), allOf(
+                containsString("demo.purge.enabled (ITEM_PURGE_ENABLED) is false but was true"),
+                containsString("demo.cache.invalidation.enabled (ITEM_CACHE_INVALIDATION_ENABLED) is false but was true")));
+    }
+
+    @Test
+    public void testVerify_MissingFlagMatchesLikeCondition() {
+        beanFactory.registerBeanDefinition("itemSnapshotConfiguration", new RootBeanDefinition(ItemSnapshotConfiguration.class));
+        environment.setProperty("demo.snapshot.enabled", "true");
+
+        // demo.concurrency.enabled is unset, and its condition matches if missing.
+        AotConditionsVerifier.verify(beanFactory, environment);
+    }
+}
@@ -0,0 +1,55 @@
+package demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import demo.rest.api.GetItemResponse;
+import demo.rest.api.GetItemsResponse;
+import demo.util.TestRestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SerializationConfigurationTest {
+
+    private final SerializationConfiguration configuration = new SerializationConfiguration();
+
+    @Test
+    public void testCborConverter_RoundTripsLargeBody() throws Exception {
+        assertRoundTrip(configuration.cborHttpMessageConverter(builder()));
+    }
+
+    @Test
+    public void testSmileConverter_RoundTripsLargeBody() throws Exception {
+        assertRoundTrip(configuration.smileHttpMessageConverter(builder()));
+    }
+
+    private Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().modulesToInstall(configuration.blackbirdModule());
+    }
+
+    /**
+     * Large enough for field names to straddle the parser's input buffer, which is only hit when reading a stream.
+     */
+    private static void assertRoundTrip(AbstractJackson2HttpMessageConverter converter) throws Exception {
+        List<GetItemResponse> itemResponses = new ArrayList<>();
+        for (int i=0; i<1000; i++) {
+            itemResponses.add(TestRestData.buildGetItemResponse(randomUUID(), "item-" + i, "colour-" + i));
+        }
+        GetItemsResponse response = GetItemsResponse.builder().itemResponses(itemResponses).build();
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(response, null, output);
+        MockHttpInputMessage input = new MockHttpInputMessage(output.getBodyAsBytes());
+        input.getHeaders().setContentType(converter.getSupportedMediaTypes().get(0));
+
+        GetItemsResponse result = (GetItemsResponse) converter.read(GetItemsResponse.class, input);
+
+        assertThat(result.getItemResponses(), equalTo(itemResponses));
+    }
+}
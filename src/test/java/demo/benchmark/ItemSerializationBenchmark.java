@@ -0,0 +1,146 @@
+package demo.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import demo.SerializationConfiguration;
+import demo.rest.api.GetItemResponse;
+import demo.rest.api.GetItemsResponse;
+import demo.util.TestRestData;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+
+/**
+ * Compares the encoded size, gzipped size and the CPU time to encode, decode and gzip a list response in each
+ * supported format, through the same message converters SerializationConfiguration gives the controllers.
+ *
+ * The reflective JSON converter's mapper ignores annotations, so it shows the cost of plain bean serialization
+ * without GetItemResponseSerializer and Blackbird.
+ *
+ * Not a unit test, run from the IDE or with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=demo.benchmark.ItemSerializationBenchmark
+ */
+public class ItemSerializationBenchmark {
+
+    private static final int ITEMS_PER_RESPONSE = 10_000;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+    // The formats take turns within each round, so JIT and GC effects are not all charged to whichever runs first.
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        GetItemsResponse response = buildResponse();
+        SerializationConfiguration configuration = new SerializationConfiguration();
+        Map<String, AbstractJackson2HttpMessageConverter> converters = new LinkedHashMap<>();
+        converters.put("json (reflective)", new MappingJackson2HttpMessageConverter(
+                JsonMapper.builder().disable(MapperFeature.USE_ANNOTATIONS).build()));
+        converters.put("json", new MappingJackson2HttpMessageConverter(builder(configuration).build()));
+        converters.put("smile", configuration.smileHttpMessageConverter(builder(configuration)));
+        converters.put("cbor", configuration.cborHttpMessageConverter(builder(configuration)));
+
+        for (AbstractJackson2HttpMessageConverter converter : converters.values()) {
+            for (int i=0; i<WARMUP_ITERATIONS; i++) {
+                decode(converter, encode(converter, response));
+            }
+        }
+        Map<String, List<long[]>> timings = new LinkedHashMap<>();
+        for (int round=0; round<ROUNDS; round++) {
+            for (Map.Entry<String, AbstractJackson2HttpMessageConverter> converter : converters.entrySet()) {
+                timings.computeIfAbsent(converter.getKey(), k -> new ArrayList<>()).add(measure(converter.getValue(), response));
+            }
+        }
+
+        System.out.printf("%d items per response, median of %d rounds of %d iterations, %s %s on %d cpus%n",
+                ITEMS_PER_RESPONSE, ROUNDS, MEASURED_ITERATIONS, System.getProperty("java.vm.name"),
+                System.getProperty("java.version"), Runtime.getRuntime().availableProcessors());
+        for (Map.Entry<String, AbstractJackson2HttpMessageConverter> converter : converters.entrySet()) {
+            byte[] encoded = encode(converter.getValue(), response);
+            List<long[]> formatTimings = timings.get(converter.getKey());
+            long encodeNanos = median(formatTimings, 0);
+            System.out.printf("%-18s bytes: %,d - gzipped: %,d - encode cpu: %,d us (%,d items/s) - decode cpu: %,d us - gzip cpu: %,d us%n",
+                    converter.getKey(), encoded.length, gzip(encoded).length,
+                    encodeNanos / 1000, ITEMS_PER_RESPONSE * 1_000_000_000L / Math.max(encodeNanos, 1),
+                    median(formatTimings, 1) / 1000, median(formatTimings, 2) / 1000);
+        }
+    }
+
+    /**
+     * @return the mean CPU time, in nanoseconds, to encode, decode and gzip the response once
+     */
+    private static long[] measure(AbstractJackson2HttpMessageConverter converter, GetItemsResponse response) throws Exception {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        byte[] encoded = null;
+        long encodeStart = threadMXBean.getCurrentThreadCpuTime();
+        for (int i=0; i<MEASURED_ITERATIONS; i++) {
+            encoded = encode(converter, response);
+        }
+        long encodeNanos = (threadMXBean.getCurrentThreadCpuTime() - encodeStart) / MEASURED_ITERATIONS;
+
+        long decodeStart = threadMXBean.getCurrentThreadCpuTime();
+        for (int i=0; i<MEASURED_ITERATIONS; i++) {
+            decode(converter, encoded);
+        }
+        long decodeNanos = (threadMXBean.getCurrentThreadCpuTime() - decodeStart) / MEASURED_ITERATIONS;
+
+        long gzipStart = threadMXBean.getCurrentThreadCpuTime();
+        for (int i=0; i<MEASURED_ITERATIONS; i++) {
+            gzip(encoded);
+        }
+        long gzipNanos = (threadMXBean.getCurrentThreadCpuTime() - gzipStart) / MEASURED_ITERATIONS;
+        return new long[] {encodeNanos, decodeNanos, gzipNanos};
+    }
+
+    /**
+     * A builder set up as Boot's would be for the application, which has no spring.jackson settings.
+     */
+    private static Jackson2ObjectMapperBuilder builder(SerializationConfiguration configuration) {
+        return Jackson2ObjectMapperBuilder.json().modulesToInstall(configuration.blackbirdModule());
+    }
+
+    private static byte[] encode(AbstractJackson2HttpMessageConverter converter, GetItemsResponse response) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, null, message);
+        return message.getBodyAsBytes();
+    }
+
+    private static GetItemsResponse decode(AbstractJackson2HttpMessageConverter converter, byte[] encoded) throws Exception {
+        MockHttpInputMessage message = new MockHttpInputMessage(encoded);
+        message.getHeaders().setContentType(converter.getSupportedMediaTypes().get(0));
+        return (GetItemsResponse) converter.read(GetItemsResponse.class, message);
+    }
+
+    private static long median(List<long[]> timings, int index) {
+        long[] values = timings.stream().mapToLong(timing -> timing[index]).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private static byte[] gzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static GetItemsResponse buildResponse() {
+        List<GetItemResponse> itemResponses = new ArrayList<>(ITEMS_PER_RESPONSE);
+        for (int i=0; i<ITEMS_PER_RESPONSE; i++) {
+            itemResponses.add(TestRestData.buildGetItemResponse(UUID.randomUUID(), randomAlphabetic(8), randomAlphabetic(3)));
+        }
+        return GetItemsResponse.builder().itemResponses(itemResponses).build();
+    }
+}
@@ -0,0 +1,45 @@
+package demo.cache;
+
+import java.util.UUID;
+
+import demo.domain.Item;
+import demo.domain.ItemSoftDeletedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.UUID.randomUUID;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemCacheEvictorTest {
+
+    private Cache cacheMock;
+    private ItemCacheEvictor evictor;
+
+    @BeforeEach
+    public void setUp() {
+        cacheMock = mock(Cache.class);
+        SessionFactory sessionFactoryMock = mock(SessionFactory.class);
+        when(sessionFactoryMock.getCache()).thenReturn(cacheMock);
+        EntityManagerFactory entityManagerFactoryMock = mock(EntityManagerFactory.class);
+        when(entityManagerFactoryMock.unwrap(SessionFactory.class)).thenReturn(sessionFactoryMock);
+        evictor = new ItemCacheEvictor(entityManagerFactoryMock);
+    }
+
+    @Test
+    public void testOnItemSoftDeleted_EvictsOnlyThatItem() {
+        UUID itemId = randomUUID();
+
+        evictor.onItemSoftDeleted(new ItemSoftDeletedEvent(itemId));
+
+        verify(cacheMock, times(1)).evictEntityData(Item.class, itemId);
+        verify(cacheMock, never()).evictEntityData(Item.class);
+        verify(cacheMock, times(1)).evictDefaultQueryRegion();
+    }
+}
@@ -0,0 +1,52 @@
+package demo.cache;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import static java.util.UUID.randomUUID;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ItemInvalidationListenerTest {
+
+    private ItemCacheEvictor evictorMock;
+    private ItemInvalidationListener listener;
+
+    @BeforeEach
+    public void setUp() {
+        evictorMock = mock(ItemCacheEvictor.class);
+        listener = new ItemInvalidationListener(new DataSourceProperties(), new CacheInvalidationProperties(), evictorMock, "node-1");
+    }
+
+    @Test
+    public void testHandle_EvictsIds() {
+        UUID id1 = randomUUID();
+        UUID id2 = randomUUID();
+
+        listener.handle("node-2|" + id1 + "," + id2);
+
+        verify(evictorMock, times(1)).evict(List.of(id1, id2));
+    }
+
+    @Test
+    public void testHandle_EvictsAll() {
+        listener.handle("node-2|*");
+
+        verify(evictorMock, times(1)).evictAll();
+    }
+
+    @Test
+    public void testHandle_IgnoresOwnMessages() {
+        listener.handle("node-1|" + randomUUID());
+
+        verify(evictorMock, never()).evict(any());
+        verify(evictorMock, never()).evictAll();
+    }
+}
@@ -0,0 +1,129 @@
+package demo.cache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import demo.domain.ItemSoftDeletedEvent;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemInvalidationPublisherTest {
+
+    private DataSource dataSourceMock;
+    private Connection connectionMock;
+    private PreparedStatement statementMock;
+    private EntityManager entityManagerMock;
+    private SessionImplementor sessionMock;
+    private ActionQueue actionQueueMock;
+    private ItemInvalidationPublisher publisher;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dataSourceMock = mock(DataSource.class);
+        connectionMock = mock(Connection.class);
+        statementMock = mock(PreparedStatement.class);
+        when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.prepareStatement(ItemInvalidationPublisher.NOTIFY_SQL)).thenReturn(statementMock);
+
+        sessionMock = mock(SessionImplementor.class);
+        actionQueueMock = mock(ActionQueue.class);
+        when(sessionMock.getActionQueue()).thenReturn(actionQueueMock);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Work.class).execute(connectionMock);
+            return null;
+        }).when(sessionMock).doWork(any());
+        entityManagerMock = mock(EntityManager.class);
+        when(entityManagerMock.unwrap(SessionImplementor.class)).thenReturn(sessionMock);
+
+        CacheInvalidationProperties properties = new CacheInvalidationProperties();
+        properties.setMaxIdsPerMessage(2);
+        publisher = new ItemInvalidationPublisher(entityManagerMock, dataSourceMock, properties, "node-1");
+    }
+
+    @Test
+    public void testPublish_CoalescesIdsIntoBatchesBeforeCommit() throws Exception {
+        UUID id1 = randomUUID();
+        UUID id2 = randomUUID();
+        UUID id3 = randomUUID();
+        publisher.publish(sessionMock, id1);
+        publisher.publish(sessionMock, id2);
+        publisher.publish(sessionMock, id1);
+        publisher.publish(sessionMock, id3);
+
+        // Nothing is sent until the transaction is about to commit.
+        verify(statementMock, never()).execute();
+        beforeCompletion().doBeforeTransactionCompletion(sessionMock);
+
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(statementMock, times(2)).setString(eq(2), payloads.capture());
+        assertThat(payloads.getAllValues(), equalTo(List.of("node-1|" + id1 + "," + id2, "node-1|" + id3)));
+        verify(statementMock, times(2)).execute();
+    }
+
+    @Test
+    public void testPublish_NextTransactionStartsAfresh() throws Exception {
+        UUID rolledBackId = randomUUID();
+        publisher.publish(sessionMock, rolledBackId);
+        ArgumentCaptor<AfterTransactionCompletionProcess> afterCompletion = ArgumentCaptor.forClass(AfterTransactionCompletionProcess.class);
+        verify(actionQueueMock).registerProcess(afterCompletion.capture());
+        afterCompletion.getValue().doAfterTransactionCompletion(false, sessionMock);
+
+        UUID itemId = randomUUID();
+        publisher.publish(sessionMock, itemId);
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueueMock, times(2)).registerProcess(beforeCompletion.capture());
+        beforeCompletion.getAllValues().get(1).doBeforeTransactionCompletion(sessionMock);
+
+        verify(statementMock, times(1)).setString(2, "node-1|" + itemId);
+        verify(statementMock, times(1)).execute();
+    }
+
+    @Test
+    public void testOnItemSoftDeleted_PublishesInTransaction() throws Exception {
+        UUID itemId = randomUUID();
+
+        publisher.onItemSoftDeleted(new ItemSoftDeletedEvent(itemId));
+        beforeCompletion().doBeforeTransactionCompletion(sessionMock);
+
+        verify(statementMock, times(1)).setString(2, "node-1|" + itemId);
+        verify(statementMock, times(1)).execute();
+    }
+
+    @Test
+    public void testPublishAll() throws Exception {
+        publisher.publishAll();
+
+        verify(statementMock, times(1)).setString(2, "node-1|*");
+        verify(statementMock, times(1)).execute();
+        verify(connectionMock, times(1)).close();
+        verify(actionQueueMock, never()).registerProcess(any(BeforeTransactionCompletionProcess.class));
+    }
+
+    private BeforeTransactionCompletionProcess beforeCompletion() {
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueueMock, times(1)).registerProcess(beforeCompletion.capture());
+        return beforeCompletion.getValue();
+    }
+}
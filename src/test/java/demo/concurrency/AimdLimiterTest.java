@@ -0,0 +1,71 @@
+package demo.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class AimdLimiterTest {
+
+    private AimdLimiter limiter;
+
+    @BeforeEach
+    public void setUp() {
+        ConcurrencyLimitProperties.Limit properties = new ConcurrencyLimitProperties.Limit();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(10);
+        properties.setBackoffRatio(0.5);
+        properties.setLatencyTolerance(Duration.ofMillis(100));
+        limiter = new AimdLimiter("read", properties);
+    }
+
+    @Test
+    public void testTryAcquire_RejectsAboveLimit() {
+        for (int i=0; i<4; i++) {
+            assertThat(limiter.tryAcquire(), equalTo(true));
+        }
+        assertThat(limiter.tryAcquire(), equalTo(false));
+        assertThat(limiter.getInFlight(), equalTo(4));
+        assertThat(limiter.getRejected(), equalTo(1L));
+    }
+
+    @Test
+    public void testOnComplete_SlowRequestDecreasesLimit() {
+        limiter.tryAcquire();
+        limiter.onComplete(200, TimeUnit.MILLISECONDS, false);
+        assertThat(limiter.getLimit(), equalTo(2));
+        assertThat(limiter.getInFlight(), equalTo(0));
+
+        limiter.tryAcquire();
+        limiter.onComplete(1, TimeUnit.MILLISECONDS, true);
+        assertThat(limiter.getLimit(), equalTo(2));
+    }
+
+    @Test
+    public void testOnComplete_FastRequestsAtCapacityIncreaseLimit() {
+        for (int round=0; round<10; round++) {
+            for (int i=0; i<limiter.getLimit(); i++) {
+                limiter.tryAcquire();
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.onComplete(1, TimeUnit.MILLISECONDS, false);
+            }
+        }
+        assertThat(limiter.getLimit(), greaterThan(4));
+    }
+
+    @Test
+    public void testOnComplete_FastRequestsBelowCapacityKeepLimit() {
+        for (int i=0; i<100; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(1, TimeUnit.MILLISECONDS, false);
+        }
+        assertThat(limiter.getLimit(), equalTo(4));
+    }
+}
@@ -0,0 +1,151 @@
+package demo.concurrency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitProperties properties;
+    private AimdLimiter readLimiter;
+    private AimdLimiter writeLimiter;
+    private AimdLimiter bulkLimiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.getRead().setInitialLimit(4);
+        properties.getRead().setRejectionStatus(503);
+        properties.getWrite().setInitialLimit(4);
+        properties.getWrite().setRejectionStatus(429);
+        properties.getBulk().setInitialLimit(1);
+        properties.getBulk().setMinLimit(1);
+        properties.getBulk().setMaxLimit(1);
+        properties.getBulk().setRejectionStatus(429);
+        readLimiter = new AimdLimiter("read", properties.getRead());
+        writeLimiter = new AimdLimiter("write", properties.getWrite());
+        bulkLimiter = new AimdLimiter("bulk", properties.getBulk());
+        filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, bulkLimiter, properties);
+    }
+
+    @Test
+    public void testDoFilter_ReleasesPermit() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/items"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest(), notNullValue());
+        assertThat(readLimiter.getInFlight(), equalTo(0));
+    }
+
+    @Test
+    public void testDoFilter_RejectsReadAtLimit() throws Exception {
+        fill(readLimiter);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/items"), response, chain);
+
+        assertThat(response.getStatus(), equalTo(503));
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), equalTo("1"));
+        assertThat(chain.getRequest(), nullValue());
+        assertThat(readLimiter.getRejected(), equalTo(1L));
+    }
+
+    @Test
+    public void testDoFilter_RejectsWriteAtLimit() throws Exception {
+        fill(writeLimiter);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/v1/items/1"), response, new MockFilterChain());
+
+        assertThat(response.getStatus(), equalTo(429));
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), equalTo("1"));
+        assertThat(readLimiter.getRejected(), equalTo(0L));
+    }
+
+    @Test
+    public void testDoFilter_ReleasesPermitWhenChainThrows() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new ServletException("failed")).when(chain).doFilter(any(), any());
+
+        assertThrows(ServletException.class,
+                () -> filter.doFilter(new MockHttpServletRequest("GET", "/v1/items"), new MockHttpServletResponse(), chain));
+
+        assertThat(readLimiter.getInFlight(), equalTo(0));
+        assertThat(readLimiter.getLimit(), lessThan(4));
+    }
+
+    @Test
+    public void testDoFilter_ServerErrorShrinksLimit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, chainResponse) -> response.setStatus(500);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/items"), response, chain);
+
+        assertThat(readLimiter.getInFlight(), equalTo(0));
+        assertThat(readLimiter.getLimit(), lessThan(4));
+    }
+
+    @Test
+    public void testDoFilter_AsyncRequestHoldsPermitUntilComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/items");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (chainRequest, chainResponse) -> chainRequest.startAsync(chainRequest, chainResponse);
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(readLimiter.getInFlight(), equalTo(1));
+
+        request.getAsyncContext().complete();
+
+        assertThat(readLimiter.getInFlight(), equalTo(0));
+        assertThat(readLimiter.getLimit(), equalTo(4));
+    }
+
+    @Test
+    public void testDoFilter_BulkEndpointsUseBulkLimit() throws Exception {
+        fill(readLimiter);
+        fill(writeLimiter);
+        MockFilterChain exportChain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/items/export"), new MockHttpServletResponse(), exportChain);
+
+        assertThat(exportChain.getRequest(), notNullValue());
+
+        bulkLimiter.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain importChain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/v1/items/import"), response, importChain);
+
+        assertThat(response.getStatus(), equalTo(429));
+        assertThat(importChain.getRequest(), nullValue());
+        assertThat(bulkLimiter.getRejected(), equalTo(1L));
+        assertThat(readLimiter.getRejected(), equalTo(0L));
+        assertThat(writeLimiter.getRejected(), equalTo(0L));
+    }
+
+    private static void fill(AimdLimiter limiter) {
+        for (int i=0; i<limiter.getLimit(); i++) {
+            limiter.tryAcquire();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package demo.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import demo.rest.api.ExportFormat;
+import demo.rest.api.ImportItemsResponse;
+import demo.service.ItemExportService;
+import demo.service.ItemImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemBulkControllerTest {
+
+    private ItemImportService importServiceMock;
+    private ItemExportService exportServiceMock;
+    private ItemBulkController controller;
+
+    @BeforeEach
+    public void setUp() {
+        importServiceMock = mock(ItemImportService.class);
+        exportServiceMock = mock(ItemExportService.class);
+        controller = new ItemBulkController(importServiceMock, exportServiceMock);
+    }
+
+    @Test
+    public void testImportItems_Success() throws Exception {
+        InputStream csv = new ByteArrayInputStream("test-item,red\n".getBytes());
+        ImportItemsResponse importResponse = ImportItemsResponse.builder().importedCount(1).rejectedCount(0).rejections(List.of()).build();
+        when(importServiceMock.importItems(csv)).thenReturn(importResponse);
+        ResponseEntity<ImportItemsResponse> response = controller.importItems(csv);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getBody().getImportedCount(), equalTo(1L));
+        verify(importServiceMock, times(1)).importItems(csv);
+    }
+
+    @Test
+    public void testImportItems_ServiceThrowsException() throws Exception {
+        InputStream csv = new ByteArrayInputStream("test-item,red\n".getBytes());
+        when(importServiceMock.importItems(csv)).thenThrow(new SQLException("Copy failed"));
+        ResponseEntity<ImportItemsResponse> response = controller.importItems(csv);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR));
+        verify(importServiceMock, times(1)).importItems(csv);
+    }
+
+    @Test
+    public void testExportItems() throws Exception {
+        UUID after = randomUUID();
+        ResponseEntity<StreamingResponseBody> response = controller.exportItems("csv", null, after, null);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.parseMediaType("text/csv")));
+
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(exportServiceMock, times(1)).exportItems(any(ExportFormat.class), isNull(), any(UUID.class), isNull(), any());
+        verify(exportServiceMock, never()).getPartitionCount();
+    }
+
+    @Test
+    public void testExportItems_Partition() throws Exception {
+        when(exportServiceMock.getPartitionCount()).thenReturn(16);
+        ResponseEntity<StreamingResponseBody> response = controller.exportItems("csv", 3, null, null);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getHeaders().getFirst(ItemBulkController.PARTITIONS_HEADER), equalTo("16"));
+
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(exportServiceMock, times(1)).exportItems(eq(ExportFormat.CSV), eq(3), isNull(), isNull(), any());
+    }
+
+    @Test
+    public void testExportItems_UnknownPartition() throws Exception {
+        when(exportServiceMock.getPartitionCount()).thenReturn(0);
+        ResponseEntity<StreamingResponseBody> response = controller.exportItems("csv", 0, null, null);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+        assertThat(response.getHeaders().getFirst(ItemBulkController.PARTITIONS_HEADER), equalTo("0"));
+        verify(exportServiceMock, never()).exportItems(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testExportItems_UnsupportedFormat() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.exportItems("xml", null, null, null);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+        verify(exportServiceMock, never()).exportItems(any(), any(), any(), any(), any());
+    }
+}
@@ -140,7 +140,7 @@ public class ItemControllerTest {
     public void testGetItems() {
         GetItemsResponse getItemsResponse = TestRestData.buildGetItemsResponse();
         when(serviceMock.getItems()).thenReturn(getItemsResponse);
-        ResponseEntity<GetItemsResponse> response = controller.getItems();
+        ResponseEntity<GetItemsResponse> response = controller.getItems(null, null);
         assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
         assertThat(response.getBody().getItemResponses().size(), equalTo(2));
         assertThat(response.getBody().getItemResponses().get(0).getName(), equalTo("test-item1"));
@@ -150,6 +150,18 @@ public class ItemControllerTest {
         verify(serviceMock, times(1)).getItems();
     }
 
+    @Test
+    public void testGetItems_Page() {
+        UUID after = randomUUID();
+        GetItemsResponse getItemsResponse = TestRestData.buildGetItemsResponse();
+        when(serviceMock.getItems(100, after)).thenReturn(getItemsResponse);
+        ResponseEntity<GetItemsResponse> response = controller.getItems(null, after);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getBody().getItemResponses().size(), equalTo(2));
+        verify(serviceMock, times(1)).getItems(100, after);
+        verify(serviceMock, times(0)).getItems();
+    }
+
     @Test
     public void testDeleteItem_Success() {
         UUID itemId = randomUUID();
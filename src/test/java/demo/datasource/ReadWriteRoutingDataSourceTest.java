@@ -0,0 +1,100 @@
+package demo.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primaryMock;
+    private DataSource replicaMock;
+    private ReplicaHealth replicaHealthMock;
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        primaryMock = mock(DataSource.class);
+        replicaMock = mock(DataSource.class);
+        replicaHealthMock = mock(ReplicaHealth.class);
+        dataSource = new ReadWriteRoutingDataSource(primaryMock, replicaMock, replicaHealthMock);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testReadWriteTransaction_RoutesToPrimary() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(replicaHealthMock.isAvailable()).thenReturn(true);
+        when(primaryMock.getConnection()).thenReturn(connection);
+
+        assertThat(dataSource.getConnection(), equalTo(connection));
+    }
+
+    @Test
+    public void testReadOnlyTransaction_RoutesToReplica() throws Exception {
+        Connection connection = mock(Connection.class);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaHealthMock.isAvailable()).thenReturn(true);
+        when(replicaMock.getConnection()).thenReturn(connection);
+
+        assertThat(dataSource.getConnection(), equalTo(connection));
+    }
+
+    @Test
+    public void testReadOnlyTransaction_ReplicaLagging() throws Exception {
+        Connection connection = mock(Connection.class);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaHealthMock.isAvailable()).thenReturn(false);
+        when(primaryMock.getConnection()).thenReturn(connection);
+
+        assertThat(dataSource.getConnection(), equalTo(connection));
+    }
+
+    @Test
+    public void testReadOnlyTransaction_ReplicaDown() throws Exception {
+        Connection connection = mock(Connection.class);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaHealthMock.isAvailable()).thenReturn(true);
+        when(replicaMock.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primaryMock.getConnection()).thenReturn(connection);
+
+        assertThat(dataSource.getConnection(), equalTo(connection));
+        verify(replicaHealthMock).markUnavailable();
+    }
+
+    @Test
+    public void testReadOnlyTransaction_WithCredentials() throws Exception {
+        Connection connection = mock(Connection.class);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaHealthMock.isAvailable()).thenReturn(true);
+        when(replicaMock.getConnection("user", "secret")).thenReturn(connection);
+
+        assertThat(dataSource.getConnection("user", "secret"), equalTo(connection));
+    }
+
+    @Test
+    public void testReadOnlyTransaction_WithCredentials_ReplicaDown() throws Exception {
+        Connection connection = mock(Connection.class);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaHealthMock.isAvailable()).thenReturn(true);
+        when(replicaMock.getConnection("user", "secret")).thenThrow(new SQLException("Connection refused"));
+        when(primaryMock.getConnection("user", "secret")).thenReturn(connection);
+
+        assertThat(dataSource.getConnection("user", "secret"), equalTo(connection));
+        verify(replicaHealthMock).markUnavailable();
+    }
+}
@@ -0,0 +1,97 @@
+package demo.instrumentation;
+
+import java.util.List;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+
+public class QueryStatisticsListenerTest {
+
+    @Test
+    public void testRecordsStatementsForCurrentRequest() {
+        QueryStatisticsListener listener = new QueryStatisticsListener();
+        listener.begin();
+
+        listener.afterQuery(buildExecutionInfo(5, 1), List.of());
+        listener.afterQuery(buildExecutionInfo(7, new int[] {1, 1, -2}), List.of());
+        QueryStatistics statistics = listener.end();
+
+        assertThat(statistics.getStatements(), equalTo(2L));
+        assertThat(statistics.getRows(), equalTo(3L));
+        assertThat(statistics.getTimeMs(), equalTo(12L));
+    }
+
+    @Test
+    public void testCountsLoadedEntitiesAsRows() {
+        QueryStatisticsListener listener = new QueryStatisticsListener();
+        listener.begin();
+
+        listener.afterQuery(buildExecutionInfo(5, null), List.of());
+        listener.onPostLoad(mock(PostLoadEvent.class));
+        listener.onPostLoad(mock(PostLoadEvent.class));
+        QueryStatistics statistics = listener.end();
+
+        assertThat(statistics.getStatements(), equalTo(1L));
+        assertThat(statistics.getRows(), equalTo(2L));
+    }
+
+    @Test
+    public void testIgnoresStatementsOutsideRequests() {
+        QueryStatisticsListener listener = new QueryStatisticsListener();
+
+        listener.afterQuery(buildExecutionInfo(5, null), List.of());
+
+        assertThat(listener.end(), nullValue());
+    }
+
+    @Test
+    public void testCountsOnlyCurrentThread() throws Exception {
+        QueryStatisticsListener listener = new QueryStatisticsListener();
+        listener.begin();
+
+        Thread other = new Thread(() -> {
+            listener.begin();
+            listener.afterQuery(buildExecutionInfo(5, null), List.of());
+            listener.afterQuery(buildExecutionInfo(5, null), List.of());
+            listener.end();
+        });
+        other.start();
+        other.join();
+        listener.afterQuery(buildExecutionInfo(5, null), List.of());
+
+        assertThat(listener.end().getStatements(), equalTo(1L));
+    }
+
+    @Test
+    public void testRegistrySummarizesPerEndpoint() {
+        QueryStatisticsListener listener = new QueryStatisticsListener();
+        QueryStatisticsRegistry registry = new QueryStatisticsRegistry();
+        for (int statements=1; statements<=3; statements++) {
+            listener.begin();
+            for (int i=0; i<statements; i++) {
+                listener.afterQuery(buildExecutionInfo(1, null), List.of());
+            }
+            registry.record("GET /v1/items", listener.end());
+        }
+
+        QueryStatisticsRegistry.Summary summary = registry.summarize().get("GET /v1/items");
+
+        assertThat(summary.getRequests(), equalTo(3L));
+        assertThat(summary.getStatements(), equalTo(6L));
+        assertThat(summary.getMaxStatementsPerRequest(), equalTo(3L));
+        assertThat(summary.getMeanStatementsPerRequest(), equalTo(2.0));
+    }
+
+    private static ExecutionInfo buildExecutionInfo(long elapsedMs, Object result) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMs);
+        executionInfo.setResult(result);
+        return executionInfo;
+    }
+}
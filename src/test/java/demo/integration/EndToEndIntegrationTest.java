@@ -1,34 +1,55 @@
 package demo.integration;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import demo.DemoConfiguration;
+import demo.domain.Item;
+import demo.instrumentation.QueryStatisticsRegistry;
 import demo.repository.ItemRepository;
 import demo.rest.api.CreateItemRequest;
 import demo.rest.api.GetItemResponse;
 import demo.rest.api.GetItemsResponse;
 import demo.rest.api.UpdateItemRequest;
 import demo.util.TestRestData;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import static demo.util.QueryCountAssertions.assertMaxStatements;
 import static java.util.UUID.randomUUID;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 @Slf4j
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = { DemoConfiguration.class } )
@@ -42,9 +63,19 @@ public class EndToEndIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QueryStatisticsRegistry queryStatisticsRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     public void setUp() {
         itemRepository.deleteAll();
+        itemRepository.purgeDeleted(Instant.now().plusSeconds(1), Integer.MAX_VALUE);
     }
 
     /**
@@ -54,29 +85,34 @@ public class EndToEndIntegrationTest {
     public void testItemCRUD() {
         // Create the item.
         CreateItemRequest createItemRequest = TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
-        ResponseEntity<Void> createItemResponse = restTemplate.postForEntity("/v1/items", createItemRequest, Void.class);
+        ResponseEntity<Void> createItemResponse = assertMaxStatements(queryStatisticsRegistry, 1,
+                () -> restTemplate.postForEntity("/v1/items", createItemRequest, Void.class));
         assertThat(createItemResponse.getStatusCode(), equalTo(HttpStatus.CREATED));
         assertThat(createItemResponse.getHeaders().getLocation(), notNullValue());
 
         String itemId = createItemResponse.getHeaders().getLocation().toString();
 
         // Retrieve the new item.
-        ResponseEntity<GetItemResponse> getItemResponse = restTemplate.getForEntity("/v1/items/"+itemId, GetItemResponse.class);
+        ResponseEntity<GetItemResponse> getItemResponse = assertMaxStatements(queryStatisticsRegistry, 1,
+                () -> restTemplate.getForEntity("/v1/items/"+itemId, GetItemResponse.class));
         assertThat(getItemResponse.getStatusCode(), equalTo(HttpStatus.OK));
         assertThat(getItemResponse.getBody().getName(), equalTo(createItemRequest.getName()));
 
         // Update the item.
         UpdateItemRequest updateItemRequest = TestRestData.buildUpdateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
-        ResponseEntity<Void> updateItemResponse = restTemplate.exchange("/v1/items/{id}", HttpMethod.PUT, new HttpEntity<>(updateItemRequest), Void.class, Map.of("id", itemId));
+        ResponseEntity<Void> updateItemResponse = assertMaxStatements(queryStatisticsRegistry, 2,
+                () -> restTemplate.exchange("/v1/items/{id}", HttpMethod.PUT, new HttpEntity<>(updateItemRequest), Void.class, Map.of("id", itemId)));
         assertThat(updateItemResponse.getStatusCode(), equalTo(HttpStatus.NO_CONTENT));
 
         // Retrieve the updated item.
         ResponseEntity<GetItemResponse> getItemResponseUpdated = restTemplate.getForEntity("/v1/items/"+itemId, GetItemResponse.class);
         assertThat(getItemResponseUpdated.getStatusCode(), equalTo(HttpStatus.OK));
         assertThat(getItemResponseUpdated.getBody().getName(), equalTo(updateItemRequest.getName()));
+        assertThat(getItemResponseUpdated.getBody().getColour(), equalTo(updateItemRequest.getColour()));
 
         // Delete the item
-        ResponseEntity<Void> deleteItemResponse = restTemplate.exchange("/v1/items/{id}", HttpMethod.DELETE, new HttpEntity<>(new HttpHeaders()), Void.class, Map.of("id", itemId));
+        ResponseEntity<Void> deleteItemResponse = assertMaxStatements(queryStatisticsRegistry, 1,
+                () -> restTemplate.exchange("/v1/items/{id}", HttpMethod.DELETE, new HttpEntity<>(new HttpHeaders()), Void.class, Map.of("id", itemId)));
         assertThat(deleteItemResponse.getStatusCode(), equalTo(HttpStatus.NO_CONTENT));
 
         // Retrieve the deleted item - should return NOT FOUND.
@@ -107,9 +143,162 @@ public class EndToEndIntegrationTest {
             assertThat(createItemResponse.getStatusCode(), equalTo(HttpStatus.CREATED));
         }
 
-        // Retrieve the items.
-        ResponseEntity<GetItemsResponse> getItemsResponse = restTemplate.getForEntity("/v1/items", GetItemsResponse.class);
+        // Retrieve the items, in a single statement however many there are.
+        ResponseEntity<GetItemsResponse> getItemsResponse = assertMaxStatements(queryStatisticsRegistry, 1,
+                () -> restTemplate.getForEntity("/v1/items", GetItemsResponse.class));
         assertThat(getItemsResponse.getStatusCode(), equalTo(HttpStatus.OK));
         assertThat(getItemsResponse.getBody().getItemResponses().size(), equalTo(totalItems));
     }
+
+    /**
+     * Page through the items with the cursor until it is exhausted, one statement per page.
+     */
+    @Test
+    public void testGetItemsPaginated() {
+        int totalItems = 7;
+        for (int i=0; i<totalItems; i++) {
+            CreateItemRequest createItemRequest = TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
+            restTemplate.postForEntity("/v1/items", createItemRequest, Void.class);
+        }
+
+        List<UUID> ids = new ArrayList<>();
+        String url = "/v1/items?limit=3";
+        int pages = 0;
+        while(url!=null) {
+            String pageUrl = url;
+            GetItemsResponse page = assertMaxStatements(queryStatisticsRegistry, 1,
+                    () -> restTemplate.getForEntity(pageUrl, GetItemsResponse.class)).getBody();
+            page.getItemResponses().forEach(item -> ids.add(item.getId()));
+            url = page.getNextCursor()==null ? null : "/v1/items?limit=3&after=" + page.getNextCursor();
+            pages++;
+        }
+
+        assertThat(pages, equalTo(3));
+        assertThat(ids.size(), equalTo(totalItems));
+        assertThat(new HashSet<>(ids).size(), equalTo(totalItems));
+    }
+
+    /**
+     * The list can be requested as CBOR instead of the default JSON.
+     */
+    @Test
+    public void testGetItems_Cbor() throws Exception {
+        CreateItemRequest createItemRequest = TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
+        restTemplate.postForEntity("/v1/items", createItemRequest, Void.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+        ResponseEntity<byte[]> getItemsResponse = restTemplate.exchange("/v1/items", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertThat(getItemsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(getItemsResponse.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_CBOR));
+
+        GetItemsResponse items = new ObjectMapper(new CBORFactory()).readValue(getItemsResponse.getBody(), GetItemsResponse.class);
+        assertThat(items.getItemResponses().size(), equalTo(1));
+        assertThat(items.getItemResponses().get(0).getName(), equalTo(createItemRequest.getName()));
+    }
+
+    /**
+     * Repeated lookups of an item or a page are served from the second level and query caches, and the cached lists
+     * are invalidated when an item is added.
+     */
+    @Test
+    public void testSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        CreateItemRequest createItemRequest = TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
+        String itemId = restTemplate.postForEntity("/v1/items", createItemRequest, Void.class).getHeaders().getLocation().toString();
+        assertThat(restTemplate.getForEntity("/v1/items", GetItemsResponse.class).getBody().getItemResponses().size(), equalTo(1));
+
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+        ResponseEntity<GetItemResponse> getItemResponse = restTemplate.getForEntity("/v1/items/"+itemId, GetItemResponse.class);
+        assertThat(getItemResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(statistics.getSecondLevelCacheHitCount(), greaterThan(hitCount));
+
+        long queryHitCount = statistics.getQueryCacheHitCount();
+        restTemplate.getForEntity("/v1/items?limit=10", GetItemsResponse.class);
+        assertThat(restTemplate.getForEntity("/v1/items?limit=10", GetItemsResponse.class).getBody().getItemResponses().size(), equalTo(1));
+        assertThat(statistics.getQueryCacheHitCount(), greaterThan(queryHitCount));
+
+        restTemplate.postForEntity("/v1/items", TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase()), Void.class);
+        assertThat(restTemplate.getForEntity("/v1/items", GetItemsResponse.class).getBody().getItemResponses().size(), equalTo(2));
+        assertThat(restTemplate.getForEntity("/v1/items?limit=10", GetItemsResponse.class).getBody().getItemResponses().size(), equalTo(2));
+    }
+
+    /**
+     * The actuator endpoints other than health require the OPS role, while the item API stays open.
+     */
+    @Test
+    public void testProfilingEndpointsSecured() {
+        ResponseEntity<String> anonymousResponse = restTemplate.getForEntity("/actuator/heaphistogram", String.class);
+        assertThat(anonymousResponse.getStatusCode(), equalTo(HttpStatus.UNAUTHORIZED));
+
+        ResponseEntity<String> authenticatedResponse = restTemplate.withBasicAuth("ops", "password").getForEntity("/actuator/heaphistogram?top=5", String.class);
+        assertThat(authenticatedResponse.getStatusCode(), equalTo(HttpStatus.OK));
+
+        for (String endpoint : List.of("/actuator/querystats", "/actuator/metrics", "/actuator/info")) {
+            assertThat(restTemplate.getForEntity(endpoint, String.class).getStatusCode(), equalTo(HttpStatus.UNAUTHORIZED));
+            assertThat(restTemplate.withBasicAuth("ops", "password").getForEntity(endpoint, String.class).getStatusCode(), equalTo(HttpStatus.OK));
+        }
+        ResponseEntity<Void> anonymousResetResponse = restTemplate.exchange("/actuator/querystats", HttpMethod.DELETE, HttpEntity.EMPTY, Void.class);
+        assertThat(anonymousResetResponse.getStatusCode(), equalTo(HttpStatus.UNAUTHORIZED));
+
+        assertThat(restTemplate.getForEntity("/actuator/health", String.class).getStatusCode(), equalTo(HttpStatus.OK));
+
+        // The API is outside the security filter chain, so its responses stay cacheable.
+        ResponseEntity<String> itemsResponse = restTemplate.getForEntity("/v1/items", String.class);
+        assertThat(itemsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(itemsResponse.getHeaders().getCacheControl(), nullValue());
+        assertThat(authenticatedResponse.getHeaders().getCacheControl(), containsString("no-store"));
+    }
+
+    /**
+     * A deleted item is hidden straight away and only removed from the table by a purge once its retention has passed.
+     */
+    @Test
+    public void testSoftDeleteAndPurge() {
+        CreateItemRequest createItemRequest = TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
+        String itemId = restTemplate.postForEntity("/v1/items", createItemRequest, Void.class).getHeaders().getLocation().toString();
+
+        restTemplate.delete("/v1/items/" + itemId);
+        assertThat(restTemplate.getForEntity("/v1/items/" + itemId, GetItemResponse.class).getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(restTemplate.getForEntity("/v1/items", GetItemsResponse.class).getBody().getItemResponses().size(), equalTo(0));
+
+        // Deleting again finds no live item.
+        ResponseEntity<Void> deleteAgainResponse = restTemplate.exchange("/v1/items/{id}", HttpMethod.DELETE, new HttpEntity<>(new HttpHeaders()), Void.class, Map.of("id", itemId));
+        assertThat(deleteAgainResponse.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+
+        // Nor does an update.
+        UpdateItemRequest updateItemRequest = TestRestData.buildUpdateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
+        ResponseEntity<Void> updateResponse = restTemplate.exchange("/v1/items/{id}", HttpMethod.PUT, new HttpEntity<>(updateItemRequest), Void.class, Map.of("id", itemId));
+        assertThat(updateResponse.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+
+        // Still within its retention, so nothing to purge.
+        assertThat(itemRepository.purgeDeleted(Instant.now().minusSeconds(60), 100), equalTo(0));
+
+        // The purge leaves live items in the second level cache.
+        String liveItemId = restTemplate.postForEntity("/v1/items", createItemRequest, Void.class).getHeaders().getLocation().toString();
+        restTemplate.getForEntity("/v1/items/" + liveItemId, GetItemResponse.class);
+        assertThat(entityManagerFactory.getCache().contains(Item.class, UUID.fromString(liveItemId)), equalTo(true));
+        assertThat(itemRepository.purgeDeleted(Instant.now().plusSeconds(1), 100), equalTo(1));
+        assertThat(entityManagerFactory.getCache().contains(Item.class, UUID.fromString(liveItemId)), equalTo(true));
+    }
+
+    /**
+     * An update of an item read before a concurrent delete commits changes no row, rather than reviving the item.
+     */
+    @Test
+    public void testUpdateAfterConcurrentDelete() {
+        CreateItemRequest createItemRequest = TestRestData.buildCreateItemRequest(randomAlphabetic(8).toLowerCase(), randomAlphabetic(3).toLowerCase());
+        UUID itemId = UUID.fromString(restTemplate.postForEntity("/v1/items", createItemRequest, Void.class).getHeaders().getLocation().toString());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            Item item = itemRepository.findById(itemId).get();
+            itemRepository.softDeleteById(itemId, Instant.now());
+            item.setName(randomAlphabetic(8).toLowerCase());
+            itemRepository.saveAndFlush(item);
+        }));
+
+        assertThat(restTemplate.getForEntity("/v1/items/" + itemId, GetItemResponse.class).getStatusCode(), equalTo(HttpStatus.OK));
+    }
 }
@@ -0,0 +1,148 @@
+package demo.integration;
+
+import java.util.UUID;
+
+import com.zaxxer.hikari.HikariDataSource;
+import demo.DemoConfiguration;
+import demo.datasource.ReplicaHealth;
+import demo.domain.Item;
+import demo.repository.ItemRepository;
+import demo.rest.api.GetItemsResponse;
+import demo.service.ItemService;
+import demo.util.TestDomainData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Routes against two separate in-memory H2 databases, the test profile's primary and a stand-in replica, so
+ * which database served a read shows in what it returns.
+ */
+@SpringBootTest(classes = { DemoConfiguration.class }, properties = {
+        "demo.datasource.replica.enabled=true",
+        "demo.datasource.replica.url=" + ReadReplicaIntegrationTest.REPLICA_URL,
+        "demo.datasource.replica.driver-class-name=org.h2.Driver",
+        "demo.datasource.replica.username=sa",
+        "demo.datasource.replica.password=",
+        "demo.datasource.replica.lag-query=SELECT lag_seconds FROM demo.replica_lag",
+        "demo.datasource.replica.max-lag=5s",
+        // Health is checked explicitly by the tests.
+        "demo.datasource.replica.health-check-interval-ms=3600000",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "demo.datasource.replica.hikari.maximum-pool-size=3"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+public class ReadReplicaIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ReplicaHealth replicaHealth;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private UUID primaryItemId;
+    private UUID replicaItemId;
+
+    @BeforeEach
+    public void setUp() {
+        replica.execute("CREATE SCHEMA IF NOT EXISTS demo");
+        replica.execute("CREATE TABLE IF NOT EXISTS demo.item (id uuid PRIMARY KEY, name varchar(4096) NOT NULL, "
+                + "colour varchar(512) NOT NULL, deleted_at TIMESTAMP WITH TIME ZONE)");
+        replica.execute("CREATE TABLE IF NOT EXISTS demo.replica_lag (lag_seconds double precision)");
+        replica.update("DELETE FROM demo.item");
+        replica.update("DELETE FROM demo.replica_lag");
+        replica.update("INSERT INTO demo.replica_lag VALUES (0)");
+
+        // Each database holds a different item.
+        itemRepository.deleteAll();
+        primaryItemId = itemRepository.save(TestDomainData.buildItem(null, "primary-item", "red")).getId();
+        replicaItemId = randomUUID();
+        replica.update("INSERT INTO demo.item (id, name, colour) VALUES (?, 'replica-item', 'blue')", replicaItemId);
+
+        replicaHealth.check();
+    }
+
+    @Test
+    public void testReadOnlyTransaction_RoutesToReplica() {
+        GetItemsResponse items = itemService.getItems(10, null);
+
+        assertThat(items.getItemResponses().size(), equalTo(1));
+        assertThat(items.getItemResponses().get(0).getId(), equalTo(replicaItemId));
+    }
+
+    @Test
+    public void testReplicaLagging_FallsBackToPrimary() {
+        replica.update("UPDATE demo.replica_lag SET lag_seconds = 60");
+        replicaHealth.check();
+
+        GetItemsResponse items = itemService.getItems(10, null);
+
+        assertThat(replicaHealth.isAvailable(), equalTo(false));
+        assertThat(items.getItemResponses().size(), equalTo(1));
+        assertThat(items.getItemResponses().get(0).getId(), equalTo(primaryItemId));
+    }
+
+    @Test
+    public void testReplicaRecovers() {
+        replica.update("UPDATE demo.replica_lag SET lag_seconds = 60");
+        replicaHealth.check();
+        replica.update("UPDATE demo.replica_lag SET lag_seconds = 1");
+        replicaHealth.check();
+
+        assertThat(replicaHealth.isAvailable(), equalTo(true));
+        assertThat(itemService.getItems(10, null).getItemResponses().get(0).getId(), equalTo(replicaItemId));
+    }
+
+    /**
+     * Rows read from the replica may be stale, so they are not put into the second level or query caches.
+     */
+    @Test
+    public void testReplicaReads_NotCached() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        long queryCachePutCount = sessionFactory.getStatistics().getQueryCachePutCount();
+
+        assertThat(itemService.getItem(replicaItemId).getName(), equalTo("replica-item"));
+        assertThat(itemService.getItems(10, null).getItemResponses().size(), equalTo(1));
+
+        assertThat(sessionFactory.getCache().containsEntity(Item.class, replicaItemId), equalTo(false));
+        assertThat(sessionFactory.getStatistics().getQueryCachePutCount(), equalTo(queryCachePutCount));
+    }
+
+    @Test
+    public void testPoolSettings_BoundPerPool() {
+        assertThat(primaryDataSource.getMaximumPoolSize(), equalTo(7));
+        assertThat(replicaDataSource.getMaximumPoolSize(), equalTo(3));
+        assertThat(replicaDataSource.isReadOnly(), equalTo(true));
+    }
+}
@@ -0,0 +1,38 @@
+package demo.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+
+public class HeapHistogramEndpointTest {
+
+    @Test
+    public void testParse() {
+        String output = " num     #instances         #bytes  class name (module)\n"
+                + "-------------------------------------------------------\n"
+                + "   1:          1200         480000  [B (java.base@17.0.9)\n"
+                + "   2:           900          21600  java.lang.String (java.base@17.0.9)\n"
+                + "   3:            10            320  demo.domain.Item\n"
+                + "Total          2110         501920\n";
+
+        HeapHistogramEndpoint.HeapHistogram histogram = HeapHistogramEndpoint.parse(output, 2);
+
+        assertThat(histogram.getTotalInstances(), equalTo(2110L));
+        assertThat(histogram.getTotalBytes(), equalTo(501920L));
+        assertThat(histogram.getClasses(), hasSize(2));
+        assertThat(histogram.getClasses().get(1).getClassName(), equalTo("java.lang.String (java.base@17.0.9)"));
+        assertThat(histogram.getClasses().get(1).getInstances(), equalTo(900L));
+        assertThat(histogram.getClasses().get(1).getBytes(), equalTo(21600L));
+    }
+
+    @Test
+    public void testHistogram() throws Exception {
+        HeapHistogramEndpoint.HeapHistogram histogram = new HeapHistogramEndpoint().histogram(5);
+
+        assertThat(histogram.getClasses(), hasSize(5));
+        assertThat(histogram.getTotalBytes(), greaterThan(0L));
+    }
+}
@@ -0,0 +1,74 @@
+package demo.profiling;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class JfrEndpointTest {
+
+    private JfrEndpoint endpoint;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        endpoint = new JfrEndpoint(new ProfilingProperties());
+        endpoint.startContinuous();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        endpoint.close();
+    }
+
+    @Test
+    public void testStartAndStop() throws Exception {
+        WebEndpointResponse<Map<String, String>> startResponse = endpoint.start("default");
+        assertThat(startResponse.getStatus(), equalTo(WebEndpointResponse.STATUS_OK));
+        assertThat(startResponse.getBody().get(JfrEndpoint.ON_DEMAND), equalTo("RUNNING"));
+
+        assertThat(endpoint.start(null).getStatus(), equalTo(WebEndpointResponse.STATUS_BAD_REQUEST));
+
+        WebEndpointResponse<Resource> stopResponse = endpoint.stop();
+        assertThat(stopResponse.getStatus(), equalTo(WebEndpointResponse.STATUS_OK));
+        assertThat(stopResponse.getBody().contentLength(), greaterThan(0L));
+        assertThat(endpoint.status().get(JfrEndpoint.ON_DEMAND), equalTo("NONE"));
+        assertStreamedAndDeleted(stopResponse.getBody());
+    }
+
+    @Test
+    public void testStart_UnknownSettings() throws Exception {
+        assertThat(endpoint.start("unknown").getStatus(), equalTo(WebEndpointResponse.STATUS_BAD_REQUEST));
+    }
+
+    @Test
+    public void testStop_NotRunning() throws Exception {
+        assertThat(endpoint.stop().getStatus(), equalTo(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @Test
+    public void testDumpContinuous() throws Exception {
+        WebEndpointResponse<Resource> response = endpoint.recording(JfrEndpoint.CONTINUOUS);
+        assertThat(response.getStatus(), equalTo(WebEndpointResponse.STATUS_OK));
+        assertThat(response.getBody().contentLength(), greaterThan(0L));
+        assertThat(endpoint.status().get(JfrEndpoint.CONTINUOUS), equalTo("RUNNING"));
+        assertStreamedAndDeleted(response.getBody());
+    }
+
+    private static void assertStreamedAndDeleted(Resource recording) throws Exception {
+        Path file = recording.getFile().toPath();
+        try (InputStream in = recording.getInputStream()) {
+            assertThat(in.readAllBytes().length, greaterThan(0));
+        }
+        assertThat(Files.exists(file), equalTo(false));
+    }
+}
@@ -0,0 +1,130 @@
+package demo.purge;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import javax.sql.DataSource;
+
+import demo.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemPurgerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T03:00:00Z");
+
+    private ItemRepository itemRepositoryMock;
+    private DataSource dataSourceMock;
+    private Connection connectionMock;
+    private ResultSet lockResultMock;
+    private PurgeProperties properties;
+    private ItemPurger purger;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        itemRepositoryMock = mock(ItemRepository.class);
+        dataSourceMock = mock(DataSource.class);
+        connectionMock = mock(Connection.class);
+        PreparedStatement statementMock = mock(PreparedStatement.class);
+        lockResultMock = mock(ResultSet.class);
+        when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.prepareStatement(any(String.class))).thenReturn(statementMock);
+        when(statementMock.executeQuery()).thenReturn(lockResultMock);
+        when(lockResultMock.next()).thenReturn(true);
+        when(lockResultMock.getBoolean(1)).thenReturn(true);
+        properties = new PurgeProperties();
+        properties.setBatchSize(10);
+        properties.setMaxBatchesPerRun(3);
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        purger = new ItemPurger(itemRepositoryMock, dataSourceMock, properties, Clock.fixed(NOW, ZoneOffset.UTC), true);
+    }
+
+    @Test
+    public void testPurge_StopsOnShortBatch() {
+        Instant cutoff = NOW.minus(properties.getRetention());
+        when(itemRepositoryMock.purgeDeleted(cutoff, 10)).thenReturn(10, 4);
+
+        purger.purge();
+
+        verify(itemRepositoryMock, times(2)).purgeDeleted(cutoff, 10);
+    }
+
+    @Test
+    public void testPurge_StopsAtMaxBatches() {
+        when(itemRepositoryMock.purgeDeleted(any(Instant.class), anyInt())).thenReturn(10);
+
+        purger.purge();
+
+        verify(itemRepositoryMock, times(3)).purgeDeleted(any(Instant.class), anyInt());
+    }
+
+    @Test
+    public void testPurge_ChangeLog() {
+        Instant cutoff = NOW.minus(properties.getChangeLogRetention());
+        when(itemRepositoryMock.purgeChangeLog(cutoff, 10)).thenReturn(10, 10, 10);
+
+        purger.purge();
+
+        verify(itemRepositoryMock, times(3)).purgeChangeLog(cutoff, 10);
+    }
+
+    @Test
+    public void testPurge_ChangeLogFailureDoesNotStopItemPurge() {
+        when(itemRepositoryMock.purgeChangeLog(any(Instant.class), anyInt())).thenThrow(new InvalidDataAccessResourceUsageException("no such table"));
+
+        purger.purge();
+
+        verify(itemRepositoryMock, times(1)).purgeDeleted(any(Instant.class), anyInt());
+        verify(itemRepositoryMock, times(1)).purgeChangeLog(any(Instant.class), anyInt());
+    }
+
+    @Test
+    public void testPurge_NoChangeLogOutsidePostgres() throws Exception {
+        purger = new ItemPurger(itemRepositoryMock, dataSourceMock, properties, Clock.fixed(NOW, ZoneOffset.UTC), false);
+
+        purger.purge();
+
+        verify(itemRepositoryMock, times(1)).purgeDeleted(any(Instant.class), anyInt());
+        verify(itemRepositoryMock, never()).purgeChangeLog(any(Instant.class), anyInt());
+        verify(dataSourceMock, never()).getConnection();
+    }
+
+    @Test
+    public void testPurge_HoldsLockForRun() throws Exception {
+        purger.purge();
+
+        InOrder inOrder = inOrder(connectionMock, itemRepositoryMock);
+        inOrder.verify(connectionMock).prepareStatement(ItemPurger.TRY_LOCK_SQL);
+        inOrder.verify(itemRepositoryMock).purgeDeleted(any(Instant.class), anyInt());
+        inOrder.verify(itemRepositoryMock).purgeChangeLog(any(Instant.class), anyInt());
+        inOrder.verify(connectionMock).prepareStatement(ItemPurger.UNLOCK_SQL);
+        inOrder.verify(connectionMock).close();
+    }
+
+    @Test
+    public void testPurge_SkipsWhenAnotherNodeHoldsLock() throws Exception {
+        when(lockResultMock.getBoolean(1)).thenReturn(false);
+
+        purger.purge();
+
+        verify(itemRepositoryMock, never()).purgeDeleted(any(Instant.class), anyInt());
+        verify(itemRepositoryMock, never()).purgeChangeLog(any(Instant.class), anyInt());
+        verify(connectionMock, never()).prepareStatement(ItemPurger.UNLOCK_SQL);
+        verify(connectionMock, times(1)).close();
+    }
+}
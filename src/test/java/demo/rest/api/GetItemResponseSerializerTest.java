@@ -0,0 +1,42 @@
+package demo.rest.api;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import demo.util.TestRestData;
+import org.junit.jupiter.api.Test;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class GetItemResponseSerializerTest {
+
+    @Test
+    public void testSerialize_Json() throws Exception {
+        UUID itemId = randomUUID();
+        GetItemResponse response = TestRestData.buildGetItemResponse(itemId, "test-item", "red");
+
+        String json = new ObjectMapper().writeValueAsString(response);
+
+        assertThat(json, equalTo("{\"id\":\"" + itemId + "\",\"name\":\"test-item\",\"colour\":\"red\"}"));
+    }
+
+    @Test
+    public void testSerialize_NullFields() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new GetItemResponse());
+
+        assertThat(json, equalTo("{\"id\":null,\"name\":null,\"colour\":null}"));
+    }
+
+    @Test
+    public void testSerialize_CborRoundTrip() throws Exception {
+        ObjectMapper mapper = new ObjectMapper(new CBORFactory());
+        GetItemResponse response = TestRestData.buildGetItemResponse(randomUUID(), "test-item", "red");
+
+        GetItemResponse result = mapper.readValue(mapper.writeValueAsBytes(response), GetItemResponse.class);
+
+        assertThat(result, equalTo(response));
+    }
+}
@@ -0,0 +1,101 @@
+package demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import demo.rest.api.ExportFormat;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemExportServiceTest {
+
+    @Test
+    public void testExportItems() throws Exception {
+        DataSource dataSourceMock = mock(DataSource.class);
+        Connection connectionMock = mock(Connection.class);
+        PGConnection pgConnectionMock = mock(PGConnection.class);
+        CopyManager copyManagerMock = mock(CopyManager.class);
+        when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.unwrap(PGConnection.class)).thenReturn(pgConnectionMock);
+        when(pgConnectionMock.getCopyAPI()).thenReturn(copyManagerMock);
+        OutputStream out = new ByteArrayOutputStream();
+        String sql = ItemExportService.buildCopySql(ExportFormat.CSV, "demo.item", null, null);
+        when(copyManagerMock.copyOut(sql, out)).thenReturn(2L);
+
+        long rows = new ItemExportService(dataSourceMock).exportItems(ExportFormat.CSV, null, null, null, out);
+
+        assertThat(rows, equalTo(2L));
+        verify(copyManagerMock).copyOut(sql, out);
+        verify(connectionMock).close();
+    }
+
+    @Test
+    public void testExportItems_Partition() throws Exception {
+        DataSource dataSourceMock = mock(DataSource.class);
+        Connection connectionMock = mock(Connection.class);
+        PreparedStatement statementMock = mock(PreparedStatement.class);
+        ResultSet resultSetMock = mock(ResultSet.class);
+        PGConnection pgConnectionMock = mock(PGConnection.class);
+        CopyManager copyManagerMock = mock(CopyManager.class);
+        when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.prepareStatement(anyString())).thenReturn(statementMock);
+        when(statementMock.executeQuery()).thenReturn(resultSetMock);
+        when(resultSetMock.next()).thenReturn(true, true, false);
+        when(resultSetMock.getString(1)).thenReturn("demo.item_p0", "demo.item_p1");
+        when(connectionMock.unwrap(PGConnection.class)).thenReturn(pgConnectionMock);
+        when(pgConnectionMock.getCopyAPI()).thenReturn(copyManagerMock);
+        OutputStream out = new ByteArrayOutputStream();
+        String sql = ItemExportService.buildCopySql(ExportFormat.CSV, "demo.item_p1", null, null);
+        when(copyManagerMock.copyOut(sql, out)).thenReturn(1L);
+
+        long rows = new ItemExportService(dataSourceMock).exportItems(ExportFormat.CSV, 1, null, null, out);
+
+        assertThat(rows, equalTo(1L));
+        verify(copyManagerMock).copyOut(sql, out);
+    }
+
+    @Test
+    public void testExportItems_UnknownPartition() throws Exception {
+        DataSource dataSourceMock = mock(DataSource.class);
+        Connection connectionMock = mock(Connection.class);
+        PreparedStatement statementMock = mock(PreparedStatement.class);
+        ResultSet resultSetMock = mock(ResultSet.class);
+        when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.prepareStatement(anyString())).thenReturn(statementMock);
+        when(statementMock.executeQuery()).thenReturn(resultSetMock);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ItemExportService(dataSourceMock).exportItems(ExportFormat.CSV, 0, null, null, new ByteArrayOutputStream()));
+        verify(connectionMock).close();
+    }
+
+    @Test
+    public void testBuildCopySql_FullCsv() {
+        assertThat(ItemExportService.buildCopySql(ExportFormat.CSV, "demo.item", null, null),
+                equalTo("COPY (SELECT id, name, colour FROM demo.item WHERE deleted_at IS NULL ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)"));
+    }
+
+    @Test
+    public void testBuildCopySql_ResumedBinaryRange() {
+        UUID after = randomUUID();
+        UUID upTo = randomUUID();
+        assertThat(ItemExportService.buildCopySql(ExportFormat.BINARY, "demo.item_p3", after, upTo),
+                equalTo("COPY (SELECT id, name, colour FROM demo.item_p3 WHERE deleted_at IS NULL AND id > '" + after + "' AND id <= '" + upTo
+                        + "' ORDER BY id) TO STDOUT WITH (FORMAT binary)"));
+    }
+}
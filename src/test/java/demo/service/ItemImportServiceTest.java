@@ -0,0 +1,104 @@
+package demo.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import javax.sql.DataSource;
+
+import demo.cache.ItemInvalidationPublisher;
+import demo.rest.api.ImportItemsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemImportServiceTest {
+
+    private CopyIn copyInMock;
+    private Cache cacheMock;
+    private ItemInvalidationPublisher invalidationPublisherMock;
+    private ByteArrayOutputStream copied;
+    private ItemImportService service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DataSource dataSourceMock = mock(DataSource.class);
+        Connection connectionMock = mock(Connection.class);
+        PGConnection pgConnectionMock = mock(PGConnection.class);
+        CopyManager copyManagerMock = mock(CopyManager.class);
+        copyInMock = mock(CopyIn.class);
+        when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.unwrap(PGConnection.class)).thenReturn(pgConnectionMock);
+        when(pgConnectionMock.getCopyAPI()).thenReturn(copyManagerMock);
+        when(copyManagerMock.copyIn(ItemImportService.COPY_SQL)).thenReturn(copyInMock);
+
+        copied = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            copied.write(invocation.getArgument(0, byte[].class), invocation.getArgument(1, Integer.class), invocation.getArgument(2, Integer.class));
+            return null;
+        }).when(copyInMock).writeToCopy(any(byte[].class), anyInt(), anyInt());
+
+        EntityManagerFactory entityManagerFactoryMock = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactoryMock = mock(SessionFactory.class);
+        cacheMock = mock(Cache.class);
+        when(entityManagerFactoryMock.unwrap(SessionFactory.class)).thenReturn(sessionFactoryMock);
+        when(sessionFactoryMock.getCache()).thenReturn(cacheMock);
+
+        ObjectProvider<ItemInvalidationPublisher> invalidationPublisherProviderMock = mock(ObjectProvider.class);
+        invalidationPublisherMock = mock(ItemInvalidationPublisher.class);
+        when(invalidationPublisherProviderMock.getIfAvailable()).thenReturn(invalidationPublisherMock);
+
+        service = new ItemImportService(dataSourceMock, entityManagerFactoryMock, invalidationPublisherProviderMock);
+    }
+
+    @Test
+    public void testImportItems() throws Exception {
+        when(copyInMock.getHandledRowCount()).thenReturn(2L);
+        String csv = "name,colour\ntest-item,red\n\"test, \"\"item\"\"\",blue\n";
+
+        ImportItemsResponse response = service.importItems(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(response.getImportedCount(), equalTo(2L));
+        assertThat(response.getRejectedCount(), equalTo(0L));
+        String[] rows = copied.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows.length, equalTo(2));
+        assertThat(rows[0], matchesPattern("[0-9a-f-]{36},\"test-item\",\"red\""));
+        assertThat(rows[1], matchesPattern("[0-9a-f-]{36},\"test, \"\"item\"\"\",\"blue\""));
+        verify(copyInMock, times(1)).endCopy();
+        verify(cacheMock, times(1)).evictDefaultQueryRegion();
+        verify(invalidationPublisherMock, times(1)).publishAll();
+    }
+
+    @Test
+    public void testImportItems_RejectsInvalidRows() throws Exception {
+        when(copyInMock.getHandledRowCount()).thenReturn(1L);
+        String csv = "test-item,red\n,blue\ntest-item\n\"unterminated,red\n";
+
+        ImportItemsResponse response = service.importItems(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(response.getImportedCount(), equalTo(1L));
+        assertThat(response.getRejectedCount(), equalTo(3L));
+        assertThat(response.getRejections(), hasSize(3));
+        assertThat(response.getRejections().get(0), equalTo("line 2: Name and colour must be set."));
+        assertThat(response.getRejections().get(1), equalTo("line 3: Expected two fields: name and colour."));
+        assertThat(copied.toString(StandardCharsets.UTF_8).split("\n").length, equalTo(1));
+    }
+}
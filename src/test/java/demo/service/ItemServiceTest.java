@@ -1,11 +1,13 @@
 package demo.service;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import demo.domain.Item;
+import demo.domain.ItemSoftDeletedEvent;
 import demo.exception.InvalidItemException;
 import demo.exception.ItemNotFoundException;
 import demo.repository.ItemRepository;
@@ -17,13 +19,18 @@ import demo.util.TestDomainData;
 import demo.util.TestRestData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import static java.util.UUID.randomUUID;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -33,12 +40,14 @@ import static org.mockito.Mockito.when;
 public class ItemServiceTest {
 
     private ItemRepository itemRepositoryMock;
+    private ApplicationEventPublisher eventPublisherMock;
     private ItemService service;
 
     @BeforeEach
     public void setUp() {
         itemRepositoryMock = mock(ItemRepository.class);
-        service = new ItemService(itemRepositoryMock);
+        eventPublisherMock = mock(ApplicationEventPublisher.class);
+        service = new ItemService(itemRepositoryMock, eventPublisherMock);
     }
 
     @Test
@@ -73,7 +82,17 @@ public class ItemServiceTest {
 
         service.updateItem(itemId, request);
 
-        verify(itemRepositoryMock, times(1)).save(any(Item.class));
+        verify(itemRepositoryMock, times(1)).saveAndFlush(any(Item.class));
+    }
+
+    @Test
+    public void testUpdateItem_DeletedSinceRead() {
+        UUID itemId = randomUUID();
+        UpdateItemRequest request = TestRestData.buildUpdateItemRequest(randomAlphabetic(8), "red");
+        when(itemRepositoryMock.findById(itemId)).thenReturn(Optional.of(TestDomainData.buildItem(itemId, "old-name", "blue")));
+        when(itemRepositoryMock.saveAndFlush(any(Item.class))).thenThrow(new ObjectOptimisticLockingFailureException(Item.class, itemId));
+
+        assertThrows(ItemNotFoundException.class, () -> service.updateItem(itemId, request));
     }
 
     @Test
@@ -94,7 +113,7 @@ public class ItemServiceTest {
         });
 
         assertThat(exception.getMessage(), equalTo("Name and colour must be set."));
-        verify(itemRepositoryMock, never()).save(any(Item.class));
+        verify(itemRepositoryMock, never()).saveAndFlush(any(Item.class));
     }
 
     @Test
@@ -131,21 +150,58 @@ public class ItemServiceTest {
         verify(itemRepositoryMock, times(1)).findAll();
     }
 
+    @Test
+    public void testGetItems_FirstPage() {
+        Item item1 = TestDomainData.buildItem(randomUUID(), "test-item", "red");
+        Item item2 = TestDomainData.buildItem(randomUUID(), "test-item2", "blue");
+        Item item3 = TestDomainData.buildItem(randomUUID(), "test-item3", "green");
+        when(itemRepositoryMock.findAllByOrderByIdAsc(Limit.of(3))).thenReturn(Arrays.asList(item1, item2, item3));
+
+        GetItemsResponse items = service.getItems(2, null);
+
+        assertThat(items.getItemResponses().size(), equalTo(2));
+        assertThat(items.getItemResponses().get(1).getName(), equalTo("test-item2"));
+        assertThat(items.getNextCursor(), equalTo(item2.getId()));
+        verify(itemRepositoryMock, never()).findAll();
+    }
+
+    @Test
+    public void testGetItems_LastPage() {
+        UUID after = randomUUID();
+        Item item = TestDomainData.buildItem(randomUUID(), "test-item", "red");
+        when(itemRepositoryMock.findByIdGreaterThanOrderByIdAsc(after, Limit.of(3))).thenReturn(List.of(item));
+
+        GetItemsResponse items = service.getItems(2, after);
+
+        assertThat(items.getItemResponses().size(), equalTo(1));
+        assertThat(items.getNextCursor(), nullValue());
+    }
+
+    @Test
+    public void testGetItems_PageSizeCapped() {
+        service.getItems(100000, null);
+
+        verify(itemRepositoryMock, times(1)).findAllByOrderByIdAsc(Limit.of(ItemService.MAX_PAGE_SIZE + 1));
+    }
+
     @Test
     public void testDeleteItem() {
         UUID itemId = randomUUID();
-        Item item = TestDomainData.buildItem(itemId, "test-item", "red");
-        when(itemRepositoryMock.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepositoryMock.softDeleteById(eq(itemId), any(Instant.class))).thenReturn(1);
 
         service.deleteItem(itemId);
 
-        verify(itemRepositoryMock, times(1)).delete(item);
+        verify(itemRepositoryMock, times(1)).softDeleteById(eq(itemId), any(Instant.class));
+        verify(itemRepositoryMock, never()).findById(itemId);
+        verify(itemRepositoryMock, never()).delete(any(Item.class));
+        verify(eventPublisherMock, times(1)).publishEvent(new ItemSoftDeletedEvent(itemId));
     }
 
     @Test
     public void testDeleteItem_NotFound() {
         UUID itemId = randomUUID();
-        when(itemRepositoryMock.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepositoryMock.softDeleteById(eq(itemId), any(Instant.class))).thenReturn(0);
         assertThrows(ItemNotFoundException.class, () -> service.deleteItem(itemId));
+        verify(eventPublisherMock, never()).publishEvent(any(Object.class));
     }
 }
@@ -0,0 +1,123 @@
+package demo.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemSnapshotFilterTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID itemId = randomUUID();
+    private final String itemJson = "{\"id\":\"" + itemId + "\",\"name\":\"item\",\"colour\":\"red\"}";
+    private ItemSnapshotManager managerMock;
+    private FilterChain chainMock;
+    private ItemSnapshotFilter filter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ItemSnapshot snapshot;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.add(itemId, itemJson.getBytes(StandardCharsets.UTF_8));
+            snapshot = writer.commit(directory.resolve(ItemSnapshotManager.FILE_NAME), 0L, 0L, 0L);
+        }
+        managerMock = mock(ItemSnapshotManager.class);
+        when(managerMock.getSnapshot()).thenReturn(snapshot);
+        chainMock = mock(FilterChain.class);
+        filter = new ItemSnapshotFilter(managerMock);
+    }
+
+    @Test
+    public void testGetItems() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/items"), response, chainMock);
+
+        assertThat(response.getStatus(), equalTo(200));
+        assertThat(response.getContentType(), equalTo("application/json"));
+        assertThat(response.getContentAsString(), equalTo("{\"itemResponses\":[" + itemJson + "]}"));
+        assertThat(response.getContentLengthLong(), equalTo((long) response.getContentAsByteArray().length));
+        verify(chainMock, never()).doFilter(any(), any());
+    }
+
+    @Test
+    public void testGetItems_WithChanges() throws Exception {
+        UUID addedId = randomUUID();
+        String addedJson = "{\"id\":\"" + addedId + "\",\"name\":\"added\",\"colour\":\"blue\"}";
+        ItemSnapshot snapshot = managerMock.getSnapshot().withChanges(Map.of(addedId, addedJson.getBytes(StandardCharsets.UTF_8)), 0L, 0L);
+        when(managerMock.getSnapshot()).thenReturn(snapshot);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/items"), response, chainMock);
+
+        assertThat(response.getContentAsString(), equalTo("{\"itemResponses\":[" + itemJson + "," + addedJson + "]}"));
+        assertThat(response.getContentLengthLong(), equalTo((long) response.getContentAsByteArray().length));
+    }
+
+    @Test
+    public void testGetItem() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/items/" + itemId);
+        request.addHeader("Accept", "application/json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chainMock);
+
+        assertThat(response.getContentAsString(), equalTo(itemJson));
+        verify(chainMock, never()).doFilter(any(), any());
+    }
+
+    /**
+     * Misses go to the controller, which may find an item created since the last refresh.
+     */
+    @Test
+    public void testGetItem_NotInSnapshot() throws Exception {
+        assertPassedOn(new MockHttpServletRequest("GET", "/v1/items/" + randomUUID()));
+        assertPassedOn(new MockHttpServletRequest("GET", "/v1/items/not-a-uuid"));
+    }
+
+    @Test
+    public void testPassedOn() throws Exception {
+        MockHttpServletRequest paginated = new MockHttpServletRequest("GET", "/v1/items");
+        paginated.setQueryString("limit=10");
+        assertPassedOn(paginated);
+
+        MockHttpServletRequest cbor = new MockHttpServletRequest("GET", "/v1/items");
+        cbor.addHeader("Accept", "application/cbor, */*;q=0.1");
+        assertPassedOn(cbor);
+
+        assertPassedOn(new MockHttpServletRequest("DELETE", "/v1/items/" + itemId));
+    }
+
+    @Test
+    public void testNoSnapshotYet() throws Exception {
+        when(managerMock.getSnapshot()).thenReturn(null);
+        assertPassedOn(new MockHttpServletRequest("GET", "/v1/items"));
+    }
+
+    private void assertPassedOn(MockHttpServletRequest request) throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        verify(chain, times(1)).doFilter(request, response);
+        assertThat(response.getContentAsByteArray().length, equalTo(0));
+    }
+}
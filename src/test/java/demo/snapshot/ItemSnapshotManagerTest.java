@@ -0,0 +1,406 @@
+package demo.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.rest.api.GetItemResponse;
+import org.h2.api.Trigger;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Runs against H2 with the change log table and trigger created by hand. xid8 is a bigint, and PostgreSQL's
+ * snapshot functions stand in for transactions the test begins and commits itself, so it controls which changes
+ * have committed.
+ */
+public class ItemSnapshotManagerTest {
+
+    private static volatile Instant now;
+    private static long nextXid;
+    private static final Set<Long> running = new TreeSet<>();
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcDataSource dataSource;
+    private ItemSnapshotProperties properties;
+    private ItemSnapshotManager manager;
+
+    public static synchronized long currentSnapshot() {
+        return running.isEmpty() ? nextXid : running.iterator().next();
+    }
+
+    public static long snapshotXmin(long snapshot) {
+        return snapshot;
+    }
+
+    public static class NoOpTrigger implements Trigger {
+
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) {
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        now = Instant.parse("2026-01-01T12:00:00Z");
+        nextXid = 1000;
+        running.clear();
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:snapshot-" + randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA demo");
+            statement.execute("CREATE TABLE demo.item (id uuid PRIMARY KEY, name varchar(4096) NOT NULL, colour varchar(512) NOT NULL, deleted_at timestamp with time zone)");
+            statement.execute("CREATE DOMAIN xid8 AS bigint");
+            statement.execute("CREATE TABLE demo.item_change_log (item_id uuid NOT NULL, xid xid8 NOT NULL)");
+            statement.execute("CREATE TRIGGER " + ItemSnapshotManager.TRIGGER_NAME + " AFTER INSERT ON demo.item FOR EACH ROW CALL '" + NoOpTrigger.class.getName() + "'");
+            statement.execute("CREATE ALIAS pg_current_snapshot FOR '" + ItemSnapshotManagerTest.class.getName() + ".currentSnapshot'");
+            statement.execute("CREATE ALIAS pg_snapshot_xmin FOR '" + ItemSnapshotManagerTest.class.getName() + ".snapshotXmin'");
+        }
+        properties = new ItemSnapshotProperties();
+        properties.setDirectory(directory);
+        manager = newManager();
+    }
+
+    @Test
+    public void testRefresh_BuildsLiveItems() throws Exception {
+        UUID id1 = insert("item1", "red");
+        UUID id2 = insert("item2", "blue");
+        UUID deletedId = insert("deleted", "green");
+        softDelete(deletedId);
+        long runningXid = begin();
+
+        manager.refresh();
+
+        ItemSnapshot snapshot = manager.getSnapshot();
+        assertThat(snapshot.size(), equalTo(2));
+        assertThat(read(snapshot.getItem(id1)).getName(), equalTo("item1"));
+        assertThat(read(snapshot.getItem(id2)).getColour(), equalTo("blue"));
+        assertThat(snapshot.getItem(deletedId), nullValue());
+        // Changes are read from the oldest transaction still running when the build started.
+        assertThat(snapshot.getChangesSince(), equalTo(runningXid));
+        assertThat(snapshot.getFullBuildAt(), equalTo(now.toEpochMilli()));
+        assertThat(snapshot.getRefreshedAt(), equalTo(now.toEpochMilli()));
+    }
+
+    @Test
+    public void testRefresh_AppliesLoggedChangesWithoutWritingFile() throws Exception {
+        UUID updatedId = insert("item1", "red");
+        UUID deletedId = insert("item2", "blue");
+        UUID unchangedId = insert("item3", "green");
+        manager.refresh();
+        ItemSnapshot built = manager.getSnapshot();
+
+        advance(Duration.ofSeconds(5));
+        update(updatedId, "updated");
+        softDelete(deletedId);
+        UUID insertedId = insert("item4", "black");
+        logChanges(updatedId, deletedId, insertedId);
+        manager.refresh();
+
+        ItemSnapshot merged = manager.getSnapshot();
+        assertThat(merged, not(sameInstance(built)));
+        assertThat(merged.size(), equalTo(3));
+        assertThat(read(merged.getItem(updatedId)).getName(), equalTo("updated"));
+        assertThat(merged.getItem(deletedId), nullValue());
+        assertThat(read(merged.getItem(insertedId)).getName(), equalTo("item4"));
+        assertThat(read(merged.getItem(unchangedId)).getName(), equalTo("item3"));
+        assertThat(merged.getChangesSince(), equalTo(nextXid));
+        assertThat(merged.getChangeCount(), equalTo(3));
+        // An incremental refresh is not a full build, and leaves the file as it was.
+        assertThat(merged.getFullBuildAt(), equalTo(built.getFullBuildAt()));
+        assertThat(ItemSnapshot.open(built.getPath()).getChangesSince(), equalTo(built.getChangesSince()));
+    }
+
+    @Test
+    public void testRefresh_WritesFileOnceEnoughChanges() throws Exception {
+        properties.setMaxOverlayChanges(1);
+        UUID id1 = insert("item1", "red");
+        UUID id2 = insert("item2", "blue");
+        manager.refresh();
+
+        advance(Duration.ofSeconds(5));
+        update(id1, "updated1");
+        update(id2, "updated2");
+        logChanges(id1, id2);
+        manager.refresh();
+
+        ItemSnapshot written = manager.getSnapshot();
+        assertThat(written.getChangeCount(), equalTo(0));
+        assertThat(written.getRefreshedAt(), equalTo(now.toEpochMilli()));
+        ItemSnapshot reopened = ItemSnapshot.open(written.getPath());
+        assertThat(reopened.getChangesSince(), equalTo(nextXid));
+        assertThat(read(reopened.getItem(id1)).getName(), equalTo("updated1"));
+        assertThat(read(reopened.getItem(id2)).getName(), equalTo("updated2"));
+    }
+
+    @Test
+    public void testRefresh_KeepsSnapshotWhenNothingDiffers() throws Exception {
+        UUID id = insert("item1", "red");
+        manager.refresh();
+        ItemSnapshot built = manager.getSnapshot();
+
+        // Logged by a write that left the row as the snapshot already holds it.
+        advance(Duration.ofSeconds(1));
+        logChanges(id);
+        manager.refresh();
+
+        assertThat(manager.getSnapshot(), sameInstance(built));
+    }
+
+    /**
+     * A change is read once its transaction commits, however long after it was logged, and no later change is
+     * passed over while it runs.
+     */
+    @Test
+    public void testRefresh_WaitsForLongRunningTransaction() throws Exception {
+        UUID slowId = insert("item1", "red");
+        UUID fastId = insert("item2", "blue");
+        manager.refresh();
+
+        long slowXid = begin();
+        logChange(slowId, slowXid);
+        advance(Duration.ofMinutes(5));
+        update(fastId, "fast");
+        logChanges(fastId);
+        manager.refresh();
+
+        assertThat(read(manager.getSnapshot().getItem(fastId)).getName(), equalTo("item2"));
+
+        update(slowId, "slow");
+        commit(slowXid);
+        manager.refresh();
+
+        assertThat(read(manager.getSnapshot().getItem(slowId)).getName(), equalTo("slow"));
+        assertThat(read(manager.getSnapshot().getItem(fastId)).getName(), equalTo("fast"));
+    }
+
+    @Test
+    public void testRefresh_IgnoresChangesBeforeWatermark() throws Exception {
+        UUID id = insert("item1", "red");
+        manager.refresh();
+
+        // Logged by a transaction that finished before the build, which therefore already saw it.
+        advance(Duration.ofSeconds(5));
+        update(id, "unseen");
+        logChange(id, manager.getSnapshot().getChangesSince() - 1);
+        manager.refresh();
+
+        assertThat(read(manager.getSnapshot().getItem(id)).getName(), equalTo("item1"));
+    }
+
+    @Test
+    public void testRefresh_RebuildsAfterInterval() throws Exception {
+        insert("item1", "red");
+        manager.refresh();
+
+        // Not logged, so only a full rebuild can pick it up.
+        UUID unloggedId = insert("item2", "blue");
+        advance(properties.getFullRebuildInterval().plusSeconds(1));
+        manager.refresh();
+
+        ItemSnapshot snapshot = manager.getSnapshot();
+        assertThat(snapshot.getItem(unloggedId), notNullValue());
+        assertThat(snapshot.getFullBuildAt(), equalTo(now.toEpochMilli()));
+    }
+
+    @Test
+    public void testRefresh_RebuildsOnTooManyChanges() throws Exception {
+        properties.setMaxIncrementalChanges(1);
+        insert("item1", "red");
+        manager.refresh();
+
+        advance(Duration.ofSeconds(5));
+        logChanges(insert("item2", "blue"), insert("item3", "green"));
+        manager.refresh();
+
+        ItemSnapshot snapshot = manager.getSnapshot();
+        assertThat(snapshot.size(), equalTo(3));
+        assertThat(snapshot.getFullBuildAt(), equalTo(now.toEpochMilli()));
+    }
+
+    /**
+     * The migration installing or removing the trigger logs a marker, as changes around it may not be logged.
+     */
+    @Test
+    public void testRefresh_RebuildsOnMarker() throws Exception {
+        insert("item1", "red");
+        manager.refresh();
+
+        advance(Duration.ofSeconds(5));
+        UUID unloggedId = insert("item2", "blue");
+        logChanges(ItemSnapshotManager.REBUILD_MARKER);
+        manager.refresh();
+
+        ItemSnapshot snapshot = manager.getSnapshot();
+        assertThat(snapshot.getItem(unloggedId), notNullValue());
+        assertThat(snapshot.getFullBuildAt(), equalTo(now.toEpochMilli()));
+    }
+
+    @Test
+    public void testRefresh_NotServedWithoutTrigger() throws Exception {
+        insert("item1", "red");
+        manager.refresh();
+
+        execute("DROP TRIGGER demo." + ItemSnapshotManager.TRIGGER_NAME);
+        logChanges(ItemSnapshotManager.REBUILD_MARKER);
+        manager.refresh();
+
+        assertThat(manager.getSnapshot(), nullValue());
+    }
+
+    @Test
+    public void testGetSnapshot_PassedOnOnceStale() throws Exception {
+        insert("item1", "red");
+        manager.refresh();
+
+        execute("DROP TABLE demo.item_change_log");
+        advance(properties.getMaxStaleness());
+        manager.refresh();
+
+        assertThat(manager.getSnapshot(), notNullValue());
+
+        advance(Duration.ofSeconds(1));
+        manager.refresh();
+
+        assertThat(manager.getSnapshot(), nullValue());
+    }
+
+    @Test
+    public void testWarmStart_CatchesUpFromExistingFile() throws Exception {
+        UUID id = insert("item1", "red");
+        manager.refresh();
+        ItemSnapshot built = manager.getSnapshot();
+
+        advance(Duration.ofMinutes(5));
+        update(id, "updated");
+        logChanges(id);
+        ItemSnapshotManager restarted = newManager();
+        restarted.warmStart();
+
+        // Not served until it has caught up.
+        assertThat(restarted.getSnapshot(), nullValue());
+
+        restarted.refresh();
+
+        assertThat(read(restarted.getSnapshot().getItem(id)).getName(), equalTo("updated"));
+        assertThat(restarted.getSnapshot().getFullBuildAt(), equalTo(built.getFullBuildAt()));
+    }
+
+    @Test
+    public void testWarmStart_IgnoresOldFile() throws Exception {
+        insert("item1", "red");
+        manager.refresh();
+
+        advance(properties.getMaxWarmStartAge().plusSeconds(1));
+        ItemSnapshotManager restarted = newManager();
+        restarted.warmStart();
+        // With rebuilds a day apart, the first refresh only rebuilds if the file was ignored.
+        properties.setFullRebuildInterval(Duration.ofDays(1));
+        restarted.refresh();
+
+        assertThat(restarted.getSnapshot().getFullBuildAt(), equalTo(now.toEpochMilli()));
+    }
+
+    private ItemSnapshotManager newManager() {
+        return new ItemSnapshotManager(dataSource, objectMapper, properties, new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        });
+    }
+
+    private static void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    private static synchronized long begin() {
+        long xid = nextXid++;
+        running.add(xid);
+        return xid;
+    }
+
+    private static synchronized void commit(long xid) {
+        running.remove(xid);
+    }
+
+    private UUID insert(String name, String colour) throws Exception {
+        UUID id = randomUUID();
+        execute("INSERT INTO demo.item (id, name, colour) VALUES (?, ?, ?)", id, name, colour);
+        return id;
+    }
+
+    private void update(UUID id, String name) throws Exception {
+        execute("UPDATE demo.item SET name = ? WHERE id = ?", name, id);
+    }
+
+    private void softDelete(UUID id) throws Exception {
+        execute("UPDATE demo.item SET deleted_at = ? WHERE id = ?", OffsetDateTime.ofInstant(now, ZoneOffset.UTC), id);
+    }
+
+    /**
+     * Log the changes in a transaction of their own, committed straight away.
+     */
+    private void logChanges(UUID... ids) throws Exception {
+        long xid = begin();
+        for (UUID id : ids) {
+            logChange(id, xid);
+        }
+        commit(xid);
+    }
+
+    private void logChange(UUID id, long xid) throws Exception {
+        execute("INSERT INTO demo.item_change_log (item_id, xid) VALUES (?, ?)", id, xid);
+    }
+
+    private void execute(String sql, Object... parameters) throws Exception {
+        try(Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i=0; i<parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private GetItemResponse read(ByteBuffer fragment) throws Exception {
+        byte[] bytes = new byte[fragment.remaining()];
+        fragment.duplicate().get(bytes);
+        return objectMapper.readValue(new String(bytes, StandardCharsets.UTF_8), GetItemResponse.class);
+    }
+}
@@ -0,0 +1,224 @@
+package demo.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ItemSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        UUID id1 = randomUUID();
+        UUID id2 = randomUUID();
+        Path file = directory.resolve(ItemSnapshotManager.FILE_NAME);
+
+        ItemSnapshot snapshot;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.add(id1, fragment(id1, "red"));
+            writer.add(id2, fragment(id2, "blue"));
+            snapshot = writer.commit(file, 123L, 456L, 789L);
+        }
+
+        assertThat(snapshot.size(), equalTo(2));
+        assertThat(snapshot.getChangesSince(), equalTo(123L));
+        assertThat(snapshot.getFullBuildAt(), equalTo(456L));
+        assertThat(snapshot.getRefreshedAt(), equalTo(789L));
+        assertThat(text(snapshot.getItem(id1)), equalTo(new String(fragment(id1, "red"), StandardCharsets.UTF_8)));
+        assertThat(text(snapshot.getItem(id2)), equalTo(new String(fragment(id2, "blue"), StandardCharsets.UTF_8)));
+        assertThat(snapshot.getItem(randomUUID()), nullValue());
+        assertThat(join(snapshot.getItems()), equalTo(new String(fragment(id1, "red"), StandardCharsets.UTF_8)
+                + "," + new String(fragment(id2, "blue"), StandardCharsets.UTF_8)));
+
+        // Only the snapshot itself is left behind.
+        try(var files = Files.list(directory)) {
+            assertThat(files.toList(), equalTo(List.of(file)));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        ItemSnapshot snapshot;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            snapshot = writer.commit(directory.resolve(ItemSnapshotManager.FILE_NAME), 0L, 0L, 0L);
+        }
+
+        assertThat(snapshot.size(), equalTo(0));
+        assertThat(snapshot.getItems().size(), equalTo(0));
+        assertThat(snapshot.getItem(randomUUID()), nullValue());
+    }
+
+    /**
+     * Enough items to fill many slots and force collisions, all of which must still be found.
+     */
+    @Test
+    public void testLookupAfterCollisions() throws Exception {
+        Set<UUID> ids = new HashSet<>();
+        ItemSnapshot snapshot;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            for(int i = 0; i < 5000; i++) {
+                UUID id = randomUUID();
+                ids.add(id);
+                writer.add(id, fragment(id, "colour" + i));
+            }
+            snapshot = writer.commit(directory.resolve(ItemSnapshotManager.FILE_NAME), 0L, 0L, 0L);
+        }
+
+        for(UUID id : ids) {
+            assertThat(text(snapshot.getItem(id)).contains(id.toString()), equalTo(true));
+        }
+    }
+
+    /**
+     * Changes over the file replace, hide and add items without touching it, and the list leaves out the
+     * fragments they replace along with one comma around each.
+     */
+    @Test
+    public void testWithChanges() throws Exception {
+        UUID id1 = randomUUID();
+        UUID id2 = randomUUID();
+        UUID id3 = randomUUID();
+        UUID id4 = randomUUID();
+        ItemSnapshot original;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.add(id1, fragment(id1, "red"));
+            writer.add(id2, fragment(id2, "blue"));
+            writer.add(id3, fragment(id3, "green"));
+            original = writer.commit(directory.resolve(ItemSnapshotManager.FILE_NAME), 1L, 100L, 100L);
+        }
+
+        Map<UUID, byte[]> changes = new LinkedHashMap<>();
+        changes.put(id1, null);
+        changes.put(id2, fragment(id2, "yellow"));
+        changes.put(id4, fragment(id4, "black"));
+        ItemSnapshot changed = original.withChanges(changes, 2L, 200L);
+
+        assertThat(changed.size(), equalTo(3));
+        assertThat(changed.getChangeCount(), equalTo(3));
+        assertThat(changed.getChangesSince(), equalTo(2L));
+        assertThat(changed.getRefreshedAt(), equalTo(200L));
+        assertThat(changed.getFullBuildAt(), equalTo(100L));
+        assertThat(changed.getItem(id1), nullValue());
+        assertThat(text(changed.getItem(id2)), equalTo(new String(fragment(id2, "yellow"), StandardCharsets.UTF_8)));
+        assertThat(text(changed.getItem(id3)), equalTo(new String(fragment(id3, "green"), StandardCharsets.UTF_8)));
+        assertThat(join(changed.getItems()), equalTo(new String(fragment(id3, "green"), StandardCharsets.UTF_8)
+                + "," + new String(fragment(id2, "yellow"), StandardCharsets.UTF_8)
+                + "," + new String(fragment(id4, "black"), StandardCharsets.UTF_8)));
+        // The original is unchanged.
+        assertThat(original.size(), equalTo(3));
+        assertThat(text(original.getItem(id1)), equalTo(new String(fragment(id1, "red"), StandardCharsets.UTF_8)));
+
+        // Deleting an item that is only held as a change drops the change.
+        ItemSnapshot deleted = changed.withChanges(Collections.singletonMap(id4, null), 3L, 300L);
+        assertThat(deleted.size(), equalTo(2));
+        assertThat(deleted.getChangeCount(), equalTo(2));
+        assertThat(join(deleted.getItems()), equalTo(new String(fragment(id3, "green"), StandardCharsets.UTF_8)
+                + "," + new String(fragment(id2, "yellow"), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writing a snapshot with changes into a new file keeps the untouched items in order and appends the changed
+     * ones.
+     */
+    @Test
+    public void testWriteChanges() throws Exception {
+        UUID id1 = randomUUID();
+        UUID id2 = randomUUID();
+        UUID id3 = randomUUID();
+        Path file = directory.resolve(ItemSnapshotManager.FILE_NAME);
+        ItemSnapshot original;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.add(id1, fragment(id1, "red"));
+            writer.add(id2, fragment(id2, "blue"));
+            writer.add(id3, fragment(id3, "green"));
+            original = writer.commit(file, 1L, 100L, 100L);
+        }
+        Map<UUID, byte[]> changes = new LinkedHashMap<>();
+        changes.put(id1, null);
+        changes.put(id2, fragment(id2, "yellow"));
+
+        ItemSnapshot written;
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.addAll(original.withChanges(changes, 2L, 200L));
+            written = writer.commit(file, 2L, original.getFullBuildAt(), 200L);
+        }
+
+        assertThat(written.size(), equalTo(2));
+        assertThat(written.getChangeCount(), equalTo(0));
+        assertThat(written.getItem(id1), nullValue());
+        assertThat(join(written.getItems()), equalTo(new String(fragment(id3, "green"), StandardCharsets.UTF_8)
+                + "," + new String(fragment(id2, "yellow"), StandardCharsets.UTF_8)));
+        // The replaced file stays readable through the earlier mapping.
+        assertThat(text(original.getItem(id1)), equalTo(new String(fragment(id1, "red"), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * A restarted node maps the file written by its previous run.
+     */
+    @Test
+    public void testReopen() throws Exception {
+        UUID id = randomUUID();
+        Path file = directory.resolve(ItemSnapshotManager.FILE_NAME);
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.add(id, fragment(id, "red"));
+            writer.commit(file, 789L, 0L, 0L);
+        }
+
+        ItemSnapshot snapshot = ItemSnapshot.open(file);
+
+        assertThat(snapshot.getChangesSince(), equalTo(789L));
+        assertThat(text(snapshot.getItem(id)), equalTo(new String(fragment(id, "red"), StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testOpen_Corrupt() throws Exception {
+        Path file = directory.resolve(ItemSnapshotManager.FILE_NAME);
+        Files.write(file, new byte[10]);
+        assertThrows(IOException.class, () -> ItemSnapshot.open(file));
+
+        UUID id = randomUUID();
+        try(ItemSnapshotWriter writer = new ItemSnapshotWriter(directory)) {
+            writer.add(id, fragment(id, "red"));
+            writer.commit(file, 0L, 0L, 0L);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> ItemSnapshot.open(file));
+    }
+
+    private static byte[] fragment(UUID id, String colour) {
+        return ("{\"id\":\"" + id + "\",\"name\":\"item\",\"colour\":\"" + colour + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String join(List<ByteBuffer> buffers) {
+        return buffers.stream().map(ItemSnapshotTest::text).collect(Collectors.joining(","));
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
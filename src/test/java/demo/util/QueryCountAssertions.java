@@ -0,0 +1,32 @@
+package demo.util;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import demo.instrumentation.QueryStatisticsRegistry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Fails the test if a request issues more SQL statements than expected, to catch N+1 and other query count
+ * regressions.
+ *
+ * Statements are counted by the request filter behind the querystats endpoint, on the thread serving each request,
+ * so the embedded server's requests are measured while work on other threads, such as scheduled jobs, is not. The
+ * filter records a request before its response completes, so the counts are in place once the call returns.
+ * Resets the registry, so the operation's requests are the only ones summarized.
+ */
+public class QueryCountAssertions {
+
+    public static <T> T assertMaxStatements(QueryStatisticsRegistry registry, long maxStatements, Supplier<T> operation) {
+        registry.reset();
+        T result = operation.get();
+        Map<String, QueryStatisticsRegistry.Summary> summaries = registry.summarize();
+        assertThat("Requests recorded", summaries.size(), greaterThan(0));
+        summaries.forEach((endpoint, summary) ->
+                assertThat("SQL statements executed by " + endpoint, summary.getMaxStatementsPerRequest(), lessThanOrEqualTo(maxStatements)));
+        return result;
+    }
+}